@@ -0,0 +1,67 @@
+package swordskillsapi.benchmark;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.IWeapon;
+import swordskillsapi.api.item.WeaponRegistry;
+
+/**
+ * 
+ * Shared setup for the benchmarks: bootstraps the vanilla registries so that real items are
+ * available without a running game, and builds registries of a given size from synthetic entries.
+ *
+ */
+final class BenchmarkRegistries
+{
+	/** Number of registry lists written by {@link WeaponRegistry#writeToBuffer(PacketBuffer)} */
+	private static final int LIST_COUNT = 4;
+
+	private BenchmarkRegistries() {}
+
+	/**
+	 * Registers all vanilla blocks and items and silences registry logging, which would otherwise dominate the results
+	 */
+	static void bootstrap() {
+		Bootstrap.register();
+		SwordSkillsApi.LOGGER.disable();
+	}
+
+	/**
+	 * Returns a new registry with the given total number of entries spread evenly across all lists;
+	 * entries are synthetic, as there are far fewer real items, and so are read in via the network format.
+	 */
+	static WeaponRegistry create(int size) {
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		for (int i = 0; i < LIST_COUNT; i++) {
+			int n = size / LIST_COUNT + (i < size % LIST_COUNT ? 1 : 0);
+			buffer.writeInt(n);
+			for (int j = 0; j < n; j++) {
+				buffer.writeString("benchmark" + (j % 16) + ":item_" + i + "_" + j);
+			}
+		}
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.readFromBuffer(buffer);
+		buffer.release();
+		return registry;
+	}
+
+	/**
+	 * Item classifying itself via {@link IWeapon}, as an unregistered item as used by the benchmarks
+	 */
+	static final class BenchmarkWeapon extends Item implements IWeapon
+	{
+		@Override
+		public boolean isSword(ItemStack stack) {
+			return stack.getCount() > 1;
+		}
+
+		@Override
+		public boolean isWeapon(ItemStack stack) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package swordskillsapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import swordskillsapi.api.item.WeaponRegistry;
+
+/**
+ * 
+ * Measures {@link WeaponRegistry#isSword(Item)} and {@link WeaponRegistry#isWeapon(ItemStack)}
+ * for vanilla items and for items implementing {@link swordskillsapi.api.item.IWeapon}.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassificationBenchmark
+{
+	@Param({"10", "1000", "50000"})
+	public int size;
+
+	private WeaponRegistry registry;
+
+	/** Mix of swords, axes, and non-weapons, so that every classification path is taken */
+	private Item[] items;
+
+	private ItemStack[] stacks;
+
+	private ItemStack[] weaponStacks;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+		BenchmarkRegistries.bootstrap();
+		this.registry = BenchmarkRegistries.create(this.size);
+		this.registry.registerWeapon("Benchmark", Items.STICK, true);
+		this.registry.removeSword("Benchmark", Items.GOLDEN_SWORD, true);
+		this.items = new Item[] { Items.IRON_SWORD, Items.DIAMOND_AXE, Items.STICK, Items.GOLDEN_SWORD, Items.APPLE, Items.BOW, Items.WOODEN_SWORD, Items.STONE_AXE };
+		this.stacks = new ItemStack[this.items.length];
+		for (int i = 0; i < this.items.length; i++) {
+			this.stacks[i] = new ItemStack(this.items[i]);
+		}
+		Item weapon = new BenchmarkRegistries.BenchmarkWeapon();
+		this.weaponStacks = new ItemStack[] { new ItemStack(weapon, 1), new ItemStack(weapon, 2) };
+	}
+
+	@Benchmark
+	public boolean isSwordItem() {
+		return this.registry.isSword(this.items[this.next++ & 7]);
+	}
+
+	@Benchmark
+	public boolean isWeaponStack() {
+		return this.registry.isWeapon(this.stacks[this.next++ & 7]);
+	}
+
+	@Benchmark
+	public boolean isWeaponStackIWeapon() {
+		return this.registry.isWeapon(this.weaponStacks[this.next++ & 1]);
+	}
+
+	@Benchmark
+	public boolean isSwordStackIWeapon() {
+		return this.registry.isSword(this.weaponStacks[this.next++ & 1]);
+	}
+}
@@ -0,0 +1,67 @@
+package swordskillsapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.init.Items;
+import swordskillsapi.api.item.WeaponRegistry;
+
+/**
+ * 
+ * Measures registering items that are already on another list, both when the
+ * registration is overridden and when it is rejected as a conflict.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark
+{
+	@Param({"10", "1000", "50000"})
+	public int size;
+
+	private WeaponRegistry registry;
+
+	private boolean toggle;
+
+	@Setup
+	public void setup() {
+		BenchmarkRegistries.bootstrap();
+		this.registry = BenchmarkRegistries.create(this.size);
+		this.registry.registerSword("Benchmark", Items.STICK, true);
+	}
+
+	/**
+	 * Moves the same item back and forth between two lists, so that every call changes the registry
+	 */
+	@Benchmark
+	public boolean registerOverride() {
+		this.toggle = !this.toggle;
+		if (this.toggle) {
+			return this.registry.removeSword("Benchmark", Items.STICK, true);
+		}
+		return this.registry.registerSword("Benchmark", Items.STICK, true);
+	}
+
+	/**
+	 * Attempts to move an item to another list without overriding, which always fails
+	 */
+	@Benchmark
+	public boolean registerConflict() {
+		return this.registry.removeWeapon("Benchmark", Items.STICK, false);
+	}
+}
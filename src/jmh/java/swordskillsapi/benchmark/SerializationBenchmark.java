@@ -0,0 +1,80 @@
+package swordskillsapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+
+/**
+ * 
+ * Measures writing the entire registry to a buffer and reading it back into a new registry,
+ * both in the original string format and in the compact format.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark
+{
+	@Param({"10", "1000", "50000"})
+	public int size;
+
+	private WeaponRegistry registry;
+
+	private PacketBuffer buffer;
+
+	@Setup
+	public void setup() {
+		BenchmarkRegistries.bootstrap();
+		this.registry = BenchmarkRegistries.create(this.size);
+		this.buffer = new PacketBuffer(Unpooled.buffer());
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.buffer.release();
+	}
+
+	@Benchmark
+	public PacketBuffer write() {
+		this.buffer.clear();
+		this.registry.writeToBuffer(this.buffer);
+		return this.buffer;
+	}
+
+	@Benchmark
+	public WeaponRegistry roundTrip() {
+		this.buffer.clear();
+		this.registry.writeToBuffer(this.buffer);
+		WeaponRegistry copy = new WeaponRegistry();
+		copy.readFromBuffer(this.buffer);
+		return copy;
+	}
+
+	@Benchmark
+	public WeaponRegistry roundTripCompact() {
+		this.buffer.clear();
+		this.registry.encode(this.buffer, WeaponRegistryCodec.Format.NAMESPACES);
+		WeaponRegistry copy = new WeaponRegistry();
+		copy.decode(this.buffer);
+		return copy;
+	}
+}
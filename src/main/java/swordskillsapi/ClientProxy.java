@@ -12,6 +12,11 @@ public class ClientProxy extends CommonProxy
 		return (ctx.side.isClient() ? Minecraft.getMinecraft() : super.getThreadFromContext(ctx));
 	}
 
+	@Override
+	public void scheduleClientTask(Runnable task) {
+		Minecraft.getMinecraft().addScheduledTask(task);
+	}
+
 	@Override
 	public EntityPlayer getPlayerEntity(MessageContext ctx) {
 		return (ctx.side.isClient() ? Minecraft.getMinecraft().player : super.getPlayerEntity(ctx));
@@ -14,6 +14,11 @@ public class CommonProxy
 		return ctx.getServerHandler().player.getServer();
 	}
 
+	/**
+	 * Schedules the task to run on the main client thread; does nothing on a dedicated server
+	 */
+	public void scheduleClientTask(Runnable task) {}
+
 	/**
 	 * Returns a side-appropriate EntityPlayer for use during message handling
 	 */
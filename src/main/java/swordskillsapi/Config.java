@@ -3,70 +3,152 @@ package swordskillsapi;
 import java.io.File;
 import java.util.Arrays;
 
-import net.minecraft.item.Item;
-import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
 
 public class Config
 {
 	public static Configuration config;
 
+	/** Maximum number of WeaponRegistry changes remembered for sending only the differences to reconnecting players */
+	private static int journalSize;
+
+	public static int getJournalSize() {
+		return journalSize;
+	}
+
+	/** [CLIENT] Whether to request the entire WeaponRegistry from servers in the compact binary format rather than as plain strings; deltas are always sent as {@link WeaponRegistryCodec.Format#NAMESPACES} */
+	private static boolean compactNetworkFormat;
+
+	public static WeaponRegistryCodec.Format getNetworkFormat() {
+		return (compactNetworkFormat ? WeaponRegistryCodec.Format.ITEM_IDS : WeaponRegistryCodec.Format.STRINGS);
+	}
+
+	/** [CLIENT] Whether to save each multiplayer server's WeaponRegistry to disk so it need not be sent again on the next visit */
+	private static boolean enableRegistryCache;
+
+	public static boolean isRegistryCacheEnabled() {
+		return enableRegistryCache;
+	}
+
+	/** Maximum size in bytes of each part of a WeaponRegistry sent in several parts */
+	private static int chunkSize;
+
+	public static int getChunkSize() {
+		return chunkSize;
+	}
+
+	/** Maximum number of WeaponRegistry parts sent to a client but not yet acknowledged by it */
+	private static int chunkWindow;
+
+	public static int getChunkWindow() {
+		return chunkWindow;
+	}
+
+	/** Whether to send all messages for a player during a tick as a single packet */
+	private static boolean batchMessages;
+
+	public static boolean isMessageBatchingEnabled() {
+		return batchMessages;
+	}
+
+	/** Whether to record metrics on WeaponRegistry usage and network traffic */
+	private static boolean enableMetrics;
+
+	public static boolean isMetricsEnabled() {
+		return enableMetrics;
+	}
+
+	/** Interval in seconds at which to export metrics to a text file, or 0 to not export them */
+	private static int metricsExportInterval;
+
+	public static int getMetricsExportInterval() {
+		return metricsExportInterval;
+	}
+
+	/** Whether to write WeaponRegistry log messages from a background thread, summarizing large bursts */
+	private static boolean asyncLogging;
+
+	public static boolean isAsyncLoggingEnabled() {
+		return asyncLogging;
+	}
+
+	/** Maximum number of similar log messages written per second before the rest are summarized, or 0 for no limit */
+	private static int logRateLimit;
+
+	public static int getLogRateLimit() {
+		return logRateLimit;
+	}
+
+	/** Whether to save the WeaponRegistry built at startup and load it directly on the next launch if nothing has changed */
+	private static boolean startupSnapshot;
+
+	public static boolean isStartupSnapshotEnabled() {
+		return startupSnapshot;
+	}
+
 	public static void preInit(FMLPreInitializationEvent event) {
-		config = new Configuration(new File(event.getModConfigurationDirectory().getAbsolutePath() + "/" + SwordSkillsApi.ID + ".cfg"));
+		load(new File(event.getModConfigurationDirectory().getAbsolutePath() + "/" + SwordSkillsApi.ID + ".cfg"));
+	}
+
+	/**
+	 * Loads all settings other than the WeaponRegistry lists from the file, adding any missing settings with their default values
+	 */
+	public static void load(File file) {
+		config = new Configuration(file);
 		config.load();
 		boolean enableWeaponLog = config.get("Weapon Registry", "Log changes to the WeaponRegistry - recommended to leave enabled until satisfied with the state of the WeaponRegistry", true).getBoolean(true);
 		if (!enableWeaponLog) {
 			SwordSkillsApi.LOGGER.info("Weapon Registry logging is now disabled");
 			SwordSkillsApi.LOGGER.disable();
 		}
+		asyncLogging = config.get("Weapon Registry", "[Async Logging] Write WeaponRegistry log messages from a background thread so that registering many items is not slowed down by logging", false).getBoolean(false);
+		logRateLimit = config.get("Weapon Registry", "[Log Rate Limit] Maximum number of similar log messages, e.g. items registered by the same mod, written per second when logging asynchronously; the rest are summarized [0-10000, 0 for no limit]", 100, "", 0, 10000).getInt();
+		journalSize = config.get("Weapon Registry", "[Change Journal Size] Number of recent changes remembered for reconnecting players [0-65536]", 1024, "Players reconnecting after missing no more than this many changes receive only those changes instead of the entire WeaponRegistry", 0, 65536).getInt();
+		compactNetworkFormat = config.get("Weapon Registry", "[Compact Network Format] [CLIENT] Receive the WeaponRegistry from servers in a compact binary format; disable only if entries fail to synchronize", true, "Applies only to transfers of the entire WeaponRegistry; changes made while connected are always sent by name in a compact format that does not depend on item ids").getBoolean(true);
+		enableRegistryCache = config.get("Weapon Registry", "[Registry Cache] [CLIENT] Save each server's WeaponRegistry to disk so that it need not be received again when rejoining if unchanged", true).getBoolean(true);
+		chunkSize = config.get("Weapon Registry", "[Chunk Size] Maximum size in bytes of each packet when sending the WeaponRegistry to a client [1024-1000000]", 32768, "Larger WeaponRegistries are sent in several parts over consecutive ticks", 1024, 1000000).getInt();
+		chunkWindow = config.get("Weapon Registry", "[Chunks In Flight] Maximum number of WeaponRegistry parts sent to a client before waiting for it to confirm receipt [1-64]", 4, "", 1, 64).getInt();
+		batchMessages = config.get("Weapon Registry", "[Batch Network Messages] Send all messages for each player during a tick as a single packet to reduce network overhead", false).getBoolean(false);
+		startupSnapshot = config.get("Weapon Registry", "[Startup Snapshot] Save the WeaponRegistry built from IMC messages and this config, and load it directly on the next launch unless mods, items, IMC messages or this config have changed", true).getBoolean(true);
+		enableMetrics = config.get("Metrics", "[Enable Metrics] Record WeaponRegistry and network usage, viewable via '/swordskillsapi stats'", false).getBoolean(false);
+		metricsExportInterval = config.get("Metrics", "[Export Interval] Seconds between exports of all metrics to 'swordskillsapi/metrics.txt' in the game directory, or 0 to disable [0-86400]", 0, "", 0, 86400).getInt();
 		config.save();
 	}
 
+	/** Item names from the [Allowed Swords], [Allowed Weapons], [Forbidden Swords] and [Forbidden Weapons] lists, in that order, followed by the [Weapon Attributes] entries */
+	private static String[][] registryLists;
+
 	public static void postInit() {
-		final String origin = "Config:" + SwordSkillsApi.ID;
-		Arrays.stream(config.get("Weapon Registry", "[Allowed Swords] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Allow the following items to activate skills requiring a sword").getStringList())
-		.forEach(s -> {
-			Item item = Config.getItemFromString(s);
-			if (item != null) {
-				WeaponRegistry.INSTANCE.registerSword(origin, item, true);
-			}
-		});
-		Arrays.stream(config.get("Weapon Registry", "[Allowed Weapons] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Allow the following items to activate weapon skills that do not specifically require a sword").getStringList())
-		.forEach(s -> {
-			Item item = Config.getItemFromString(s);
-			if (item != null) {
-				WeaponRegistry.INSTANCE.registerWeapon(origin, item, true);
-			}
-		});
-		Arrays.stream(config.get("Weapon Registry", "[Forbidden Swords] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Forbid the following items from activating skills requiring a sword").getStringList())
-		.forEach(s -> {
-			Item item = Config.getItemFromString(s);
-			if (item != null) {
-				WeaponRegistry.INSTANCE.removeSword(origin, item, true);
-			}
-		});
-		Arrays.stream(config.get("Weapon Registry", "[Forbidden Weapons] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Forbid the following items from activating all weapon-based skills").getStringList())
-		.forEach(s -> {
-			Item item = Config.getItemFromString(s);
-			if (item != null) {
-				WeaponRegistry.INSTANCE.removeWeapon(origin, item, true);
-			}
-		});
+		registryLists = new String[][] {
+			config.get("Weapon Registry", "[Allowed Swords] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Allow the following items to activate skills requiring a sword; patterns such as modid:*, modid:*_sword or /regex/ match many items at once").getStringList(),
+			config.get("Weapon Registry", "[Allowed Weapons] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Allow the following items to activate weapon skills that do not specifically require a sword; patterns such as modid:*, modid:*_sword or /regex/ match many items at once").getStringList(),
+			config.get("Weapon Registry", "[Forbidden Swords] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Forbid the following items from activating skills requiring a sword; patterns such as modid:*, modid:*_sword or /regex/ match many items at once").getStringList(),
+			config.get("Weapon Registry", "[Forbidden Weapons] Enter items as modid:registered_item_name, each on a separate line between the '<' and '>'", new String[0], "Forbid the following items from activating all weapon-based skills; patterns such as modid:*, modid:*_sword or /regex/ match many items at once").getStringList(),
+			config.get("Weapon Registry", "[Weapon Attributes] Enter items as modid:registered_item_name followed by one or more attribute=value pairs, each item on a separate line between the '<' and '>'", new String[0], "Set numeric weapon attributes read by other mods, e.g. minecraft:iron_sword reach=4.5 weight=2; attribute names may contain only lower-case letters, digits, '_', '.' and '-'").getStringList()
+		};
 		config.save();
 	}
 
-	private static Item getItemFromString(String s) {
-		ResourceLocation location = WeaponRegistry.getResourceLocation(s);
-		if (location == null) {
-			SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [Config] Invalid ResourceLocation string %s", s));
-			return null;
-		}
-		Item item = Item.REGISTRY.getObject(location);
-		if (item == null) {
-			SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [Config] %s could not be found - the mod may not be installed or it may have been typed incorrectly", s));
-		}
-		return item;
+	/**
+	 * Returns the item names from each of the config's WeaponRegistry lists followed by the attribute entries, see {@link #applyRegistryLists()}
+	 */
+	public static String[][] getRegistryLists() {
+		return registryLists;
+	}
+
+	/**
+	 * Adds the items from the config's WeaponRegistry lists to the registry, overriding any existing entries, and sets the configured attributes
+	 */
+	public static void applyRegistryLists() {
+		WeaponRegistry.Batch batch = WeaponRegistry.INSTANCE.batch("Config:" + SwordSkillsApi.ID);
+		Arrays.stream(registryLists[0]).forEach(s -> batch.allowSword(s.trim(), true));
+		Arrays.stream(registryLists[1]).forEach(s -> batch.allowWeapon(s.trim(), true));
+		Arrays.stream(registryLists[2]).forEach(s -> batch.forbidSword(s.trim(), true));
+		Arrays.stream(registryLists[3]).forEach(s -> batch.forbidWeapon(s.trim(), true));
+		Arrays.stream(registryLists[4]).filter(s -> !s.trim().isEmpty()).forEach(batch::setAttributes);
+		batch.commit();
 	}
 }
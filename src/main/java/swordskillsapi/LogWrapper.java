@@ -1,18 +1,50 @@
 package swordskillsapi;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IllegalFormatException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 
 /**
- * 
+ *
  * Wrapper around the basic Logger functions that supports easily disabling all logging for the enclosed Logger.
  *
+ * Parameterized and Supplier overloads only format their message if logging is enabled, so callers
+ * should prefer them over building the message themselves, e.g. info("Added %s", item.getRegistryName()).
+ * Each level also accepts a throwable, given first so that it can never be mistaken for an argument,
+ * e.g. error(e, "Failed to load %s", file).
+ *
+ * In {@link #enableAsync(int, int) asynchronous} mode, every message is instead written by a background
+ * thread from a bounded queue, in the order logged, and bursts of similar messages beyond a given rate
+ * are summarized as a single line rather than written individually.
+ *
  */
 public class LogWrapper
 {
-	private boolean enabled = true;
+	private volatile boolean enabled = true;
 
 	private final Logger logger;
 
+	/** Queue of messages awaiting the background thread, or null when logging synchronously */
+	private volatile BlockingQueue<Entry> queue;
+
+	private Thread writer;
+
+	/** Number of messages discarded because the queue was full */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/** Maximum number of similar messages written per second in asynchronous mode, or 0 for no limit */
+	private int rateLimit;
+
 	public LogWrapper(Logger logger) {
 		this.logger = logger;
 	}
@@ -31,39 +63,299 @@ public class LogWrapper
 		this.enabled = true;
 	}
 
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Writes all subsequent messages from a background thread
+	 * @param capacity  Maximum number of messages awaiting the background thread; further messages are counted and discarded
+	 * @param rateLimit Maximum number of messages per second sharing the same format and first argument, e.g. the same
+	 *                  registry operation from the same origin; further such messages are summarized, or 0 for no limit
+	 */
+	public synchronized void enableAsync(int capacity, int rateLimit) {
+		if (this.queue != null) {
+			return;
+		}
+		this.rateLimit = rateLimit;
+		BlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(capacity);
+		this.queue = queue;
+		this.writer = new Thread(() -> this.drain(queue), this.logger.getName() + " log writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::disableAsync));
+	}
+
+	/**
+	 * Writes any messages still queued and returns to logging synchronously
+	 */
+	public synchronized void disableAsync() {
+		BlockingQueue<Entry> queue = this.queue;
+		if (queue == null) {
+			return;
+		}
+		this.queue = null;
+		this.writer.interrupt();
+		try {
+			this.writer.join(5000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.writer = null;
+		this.writeRemaining(queue);
+	}
+
 	public void debug(String msg) {
-		if (this.enabled) {
-			this.logger.debug(msg);
+		this.logMessage(Level.DEBUG, msg, null);
+	}
+
+	public void debug(String format, Object... args) {
+		this.log(Level.DEBUG, null, format, args);
+	}
+
+	public void debug(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.DEBUG)) {
+			this.logMessage(Level.DEBUG, msg.get(), null);
 		}
 	}
 
+	public void debug(Throwable t, String format, Object... args) {
+		this.log(Level.DEBUG, t, format, args);
+	}
+
 	public void error(String msg) {
-		if (this.enabled) {
-			this.logger.error(msg);
+		this.logMessage(Level.ERROR, msg, null);
+	}
+
+	public void error(String format, Object... args) {
+		this.log(Level.ERROR, null, format, args);
+	}
+
+	public void error(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.ERROR)) {
+			this.logMessage(Level.ERROR, msg.get(), null);
 		}
 	}
 
+	public void error(Throwable t, String format, Object... args) {
+		this.log(Level.ERROR, t, format, args);
+	}
+
 	public void fatal(String msg) {
-		if (this.enabled) {
-			this.logger.fatal(msg);
+		this.logMessage(Level.FATAL, msg, null);
+	}
+
+	public void fatal(String format, Object... args) {
+		this.log(Level.FATAL, null, format, args);
+	}
+
+	public void fatal(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.FATAL)) {
+			this.logMessage(Level.FATAL, msg.get(), null);
 		}
 	}
 
+	public void fatal(Throwable t, String format, Object... args) {
+		this.log(Level.FATAL, t, format, args);
+	}
+
 	public void info(String msg) {
-		if (this.enabled) {
-			this.logger.info(msg);
+		this.logMessage(Level.INFO, msg, null);
+	}
+
+	public void info(String format, Object... args) {
+		this.log(Level.INFO, null, format, args);
+	}
+
+	public void info(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.INFO)) {
+			this.logMessage(Level.INFO, msg.get(), null);
 		}
 	}
 
+	public void info(Throwable t, String format, Object... args) {
+		this.log(Level.INFO, t, format, args);
+	}
+
 	public void trace(String msg) {
-		if (this.enabled) {
-			this.logger.trace(msg);
+		this.logMessage(Level.TRACE, msg, null);
+	}
+
+	public void trace(String format, Object... args) {
+		this.log(Level.TRACE, null, format, args);
+	}
+
+	public void trace(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.TRACE)) {
+			this.logMessage(Level.TRACE, msg.get(), null);
 		}
 	}
 
+	public void trace(Throwable t, String format, Object... args) {
+		this.log(Level.TRACE, t, format, args);
+	}
+
 	public void warn(String msg) {
-		if (this.enabled) {
-			this.logger.warn(msg);
+		this.logMessage(Level.WARN, msg, null);
+	}
+
+	public void warn(String format, Object... args) {
+		this.log(Level.WARN, null, format, args);
+	}
+
+	public void warn(Supplier<String> msg) {
+		if (this.enabled && this.logger.isEnabled(Level.WARN)) {
+			this.logMessage(Level.WARN, msg.get(), null);
+		}
+	}
+
+	public void warn(Throwable t, String format, Object... args) {
+		this.log(Level.WARN, t, format, args);
+	}
+
+	/**
+	 * Logs the message produced by {@link String#format(String, Object...)}, formatting it only if logging is enabled,
+	 * along with the throwable if any; the arguments should be immutable, as they may be formatted later by another thread.
+	 */
+	private void log(Level level, Throwable t, String format, Object[] args) {
+		if (this.enabled && this.logger.isEnabled(level)) {
+			this.log(new Entry(level, format, (args == null || args.length == 0 ? null : args), t));
+		}
+	}
+
+	/**
+	 * Logs the message as is, along with the throwable if any
+	 */
+	private void logMessage(Level level, String msg, Throwable t) {
+		if (this.enabled && this.logger.isEnabled(level)) {
+			this.log(new Entry(level, msg, null, t));
 		}
 	}
+
+	/**
+	 * Writes the entry now, or queues it for the background thread so that it is written in order with every other message
+	 */
+	private void log(Entry entry) {
+		BlockingQueue<Entry> queue = this.queue;
+		if (queue == null) {
+			this.logger.log(entry.level, entry.format(), entry.thrown);
+		} else if (!queue.offer(entry)) {
+			this.dropped.incrementAndGet();
+		} else if (this.queue != queue) {
+			// Asynchronous mode was disabled meanwhile, possibly after the writer had already finished
+			this.writeRemaining(queue);
+		}
+	}
+
+	/**
+	 * Writes any messages left in a queue that is no longer in use, once {@link #disableAsync()} has finished with it
+	 */
+	private synchronized void writeRemaining(BlockingQueue<Entry> queue) {
+		for (Entry entry = queue.poll(); entry != null; entry = queue.poll()) {
+			this.logger.log(entry.level, entry.format(), entry.thrown);
+		}
+	}
+
+	/**
+	 * Writes queued messages until asynchronous mode is disabled, summarizing any exceeding the rate limit
+	 */
+	private void drain(BlockingQueue<Entry> queue) {
+		Map<String, Burst> bursts = new HashMap<String, Burst>();
+		long windowStart = System.nanoTime();
+		while (this.queue == queue) {
+			Entry entry;
+			try {
+				entry = queue.poll(250L, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				break;
+			}
+			long now = System.nanoTime();
+			if (now - windowStart >= TimeUnit.SECONDS.toNanos(1L)) {
+				this.summarize(bursts);
+				windowStart = now;
+			}
+			if (entry != null) {
+				this.write(entry, bursts);
+			}
+		}
+		for (Entry entry = queue.poll(); entry != null; entry = queue.poll()) {
+			this.write(entry, bursts);
+		}
+		this.summarize(bursts);
+	}
+
+	private void write(Entry entry, Map<String, Burst> bursts) {
+		if (this.rateLimit > 0) {
+			String key = entry.getKey();
+			Burst burst = bursts.computeIfAbsent(key, k -> new Burst());
+			if (++burst.count > this.rateLimit) {
+				burst.last = entry;
+				return;
+			}
+		}
+		this.logger.log(entry.level, entry.format(), entry.thrown);
+	}
+
+	/**
+	 * Writes a summary line for each group of messages that exceeded the rate limit in the last window, and starts a new window
+	 */
+	private void summarize(Map<String, Burst> bursts) {
+		for (Iterator<Burst> iterator = bursts.values().iterator(); iterator.hasNext();) {
+			Burst burst = iterator.next();
+			if (burst.last != null) {
+				this.logger.log(burst.last.level, String.format("... and %,d more similar messages, the last being: %s", burst.count - this.rateLimit, burst.last.format()));
+			}
+			iterator.remove();
+		}
+		long dropped = this.dropped.getAndSet(0L);
+		if (dropped > 0L) {
+			this.logger.warn(String.format("%,d log messages were discarded because too many were logged at once", dropped));
+		}
+	}
+
+	private static final class Entry
+	{
+		private final Level level;
+
+		private final String format;
+
+		/** Arguments for the format, or null if the format is the message itself */
+		private final Object[] args;
+
+		private final Throwable thrown;
+
+		private Entry(Level level, String format, Object[] args, Throwable thrown) {
+			this.level = level;
+			this.format = format;
+			this.args = args;
+			this.thrown = thrown;
+		}
+
+		/**
+		 * Messages with the same level, format and first argument are considered similar; the first
+		 * argument is typically the origin of the message, e.g. the mod performing a registration
+		 */
+		private String getKey() {
+			return this.level + this.format + (this.args != null && this.args.length > 0 ? String.valueOf(this.args[0]) : "");
+		}
+
+		private String format() {
+			if (this.args == null) {
+				return this.format;
+			}
+			try {
+				return String.format(this.format, this.args);
+			} catch (IllegalFormatException e) {
+				// Never let a malformed message stop the background thread
+				return this.format + " " + Arrays.toString(this.args);
+			}
+		}
+	}
+
+	private static final class Burst
+	{
+		private int count;
+
+		private Entry last;
+	}
 }
@@ -0,0 +1,196 @@
+package swordskillsapi;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.fml.common.event.FMLInterModComms;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+
+/**
+ *
+ * Builds the WeaponRegistry at the end of startup from the IMC messages received and the config's lists,
+ * saving the result along with a fingerprint of everything it was built from: the active mods, the item
+ * registry, any entries registered directly via the API beforehand, the IMC messages, and the config lists.
+ *
+ * On the next launch, if the fingerprint is unchanged, the saved registry is read and loaded as a whole
+ * instead, skipping all name resolution and per-entry logging.
+ *
+ */
+public class StartupRegistryCache
+{
+	/** 'SSAS' followed by the file format version */
+	private static final int MAGIC = 0x53534153;
+
+	private static final int FILE_VERSION = 3;
+
+	/** IMC messages received, processed only once it is known whether the saved registry can be used */
+	private static final List<FMLInterModComms.IMCMessage> messages = new ArrayList<FMLInterModComms.IMCMessage>();
+
+	/**
+	 * Defers processing of the IMC messages until {@link #buildRegistry(File)}
+	 */
+	public static void addMessages(List<FMLInterModComms.IMCMessage> received) {
+		messages.addAll(received);
+	}
+
+	/**
+	 * Loads the registry saved in the file if it was built from the same inputs, otherwise
+	 * processes all IMC messages and config lists and saves the resulting registry to the file
+	 */
+	public static void buildRegistry(File file) {
+		byte[] fingerprint = (Config.isStartupSnapshotEnabled() ? computeFingerprint() : null);
+		if (fingerprint != null && load(file, fingerprint)) {
+			messages.clear();
+			return;
+		}
+		for (FMLInterModComms.IMCMessage msg : messages) {
+			WeaponRegistry.INSTANCE.processMessage(msg);
+		}
+		if (!messages.isEmpty()) {
+			SwordSkillsApi.LOGGER.info("[WeaponRegistry] [IMC] Processed %,d messages from %,d mods", messages.size(), messages.stream().map(FMLInterModComms.IMCMessage::getSender).distinct().count());
+		}
+		messages.clear();
+		Config.applyRegistryLists();
+		if (fingerprint != null) {
+			save(file, fingerprint);
+		}
+	}
+
+	private static boolean load(File file, byte[] fingerprint) {
+		if (!file.isFile()) {
+			return false;
+		}
+		try {
+			// Not memory-mapped: a mapping stays open until garbage collected, which prevents save() from replacing the file on Windows
+			PacketBuffer buffer = new PacketBuffer(Unpooled.wrappedBuffer(Files.readAllBytes(file.toPath())));
+			if (buffer.readInt() != MAGIC || buffer.readInt() != FILE_VERSION) {
+				return false;
+			}
+			byte[] saved = new byte[fingerprint.length];
+			buffer.readBytes(saved);
+			if (!Arrays.equals(saved, fingerprint)) {
+				return false;
+			}
+			long contentHash = buffer.readLong();
+			WeaponRegistry registry = new WeaponRegistry();
+			registry.decode(buffer);
+			if (registry.getSnapshot().getContentHash() != contentHash) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Saved startup registry %s does not match its content hash", file);
+				return false;
+			}
+			WeaponRegistry.INSTANCE.copy(registry);
+			SwordSkillsApi.LOGGER.info("[WeaponRegistry] Loaded %,d entries from the saved startup registry; IMC messages and config lists are unchanged", registry.getSnapshot().size());
+			return true;
+		} catch (IOException | RuntimeException e) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Failed to load saved startup registry from %s: %s", file, e.getMessage());
+		}
+		return false;
+	}
+
+	private static void save(File file, byte[] fingerprint) {
+		WeaponRegistrySnapshot snapshot = WeaponRegistry.INSTANCE.getSnapshot();
+		ByteBuf payload = Unpooled.buffer();
+		try {
+			snapshot.encode(new PacketBuffer(payload), WeaponRegistryCodec.Format.NAMESPACES);
+			File parent = file.getAbsoluteFile().getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			File temp = new File(parent, file.getName() + ".tmp");
+			try (OutputStream stream = Files.newOutputStream(temp.toPath()); DataOutputStream out = new DataOutputStream(stream)) {
+				out.writeInt(MAGIC);
+				out.writeInt(FILE_VERSION);
+				out.write(fingerprint);
+				out.writeLong(snapshot.getContentHash());
+				payload.readBytes(out, payload.readableBytes());
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Failed to save startup registry to %s: %s", file, e.getMessage());
+		} finally {
+			payload.release();
+		}
+	}
+
+	/**
+	 * Returns a SHA-256 digest of every input from which the registry is built, or null if it could not be computed
+	 */
+	private static byte[] computeFingerprint() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+		update(digest, SwordSkillsApi.VERSION);
+		for (ModContainer mod : Loader.instance().getActiveModList()) {
+			update(digest, mod.getModId());
+			update(digest, mod.getVersion());
+		}
+		digest.update(ByteBuffer.allocate(16)
+				.putLong(WeaponRegistryCodec.computeItemIdMapHash())
+				.putLong(WeaponRegistry.INSTANCE.getSnapshot().getContentHash())
+				.array());
+		for (FMLInterModComms.IMCMessage msg : messages) {
+			update(digest, msg.getSender());
+			update(digest, msg.key);
+			update(digest, String.valueOf(msg.getMessageType()));
+			update(digest, describeValue(msg));
+		}
+		for (String[] list : Config.getRegistryLists()) {
+			update(digest, String.valueOf(list.length));
+			for (String s : list) {
+				update(digest, s);
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Returns a string uniquely describing the message's value for the purposes of the fingerprint
+	 */
+	private static String describeValue(FMLInterModComms.IMCMessage msg) {
+		if (msg.isItemStackMessage()) {
+			return String.valueOf(msg.getItemStackValue().getItem().getRegistryName());
+		} else if (msg.isResourceLocationMessage()) {
+			return String.valueOf(msg.getResourceLocationValue());
+		} else if (msg.isStringMessage()) {
+			return msg.getStringValue();
+		} else if (msg.isNBTMessage()) {
+			return String.valueOf(msg.getNBTValue());
+		}
+		return "";
+	}
+
+	/**
+	 * Adds the length-prefixed string to the digest, so that adjacent strings cannot be confused
+	 */
+	private static void update(MessageDigest digest, String s) {
+		byte[] bytes = String.valueOf(s).getBytes(StandardCharsets.UTF_8);
+		digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+		digest.update(bytes);
+	}
+}
@@ -1,5 +1,7 @@
 package swordskillsapi;
 
+import java.io.File;
+
 import org.apache.logging.log4j.LogManager;
 
 import net.minecraftforge.common.MinecraftForge;
@@ -10,10 +12,19 @@ import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
 import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppedEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.api.item.HeldItemClassification;
+import swordskillsapi.api.item.StackClassification;
 import swordskillsapi.api.item.WeaponRegistry;
 import swordskillsapi.command.CommandWeaponRegistry;
 import swordskillsapi.event.ModEventHandler;
+import swordskillsapi.metrics.MetricsExporter;
+import swordskillsapi.metrics.RegistryMetrics;
+import swordskillsapi.network.AbstractMessage;
 import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.RegistryPayloadCache;
+import swordskillsapi.network.RegistryTransferManager;
 
 @Mod(modid = SwordSkillsApi.ID, name = SwordSkillsApi.NAME, version = SwordSkillsApi.VERSION, updateJSON = SwordSkillsApi.VERSION_LIST)
 public class SwordSkillsApi
@@ -31,23 +42,37 @@ public class SwordSkillsApi
 
 	public static final LogWrapper LOGGER = new LogWrapper(LogManager.getLogger(ID));
 
+	/** File in which the WeaponRegistry built during startup is saved, see {@link StartupRegistryCache} */
+	private File startupRegistryFile;
+
 	@Mod.EventHandler
 	public void preInit(FMLPreInitializationEvent event) {
 		Config.preInit(event);
+		this.startupRegistryFile = new File(event.getModConfigurationDirectory().getParentFile(), ID + "/startup_registry.bin");
+		if (Config.isAsyncLoggingEnabled() && LOGGER.isEnabled()) {
+			LOGGER.enableAsync(8192, Config.getLogRateLimit());
+		}
+		RegistryMetrics.setEnabled(Config.isMetricsEnabled());
+		if (Config.isMetricsEnabled() && Config.getMetricsExportInterval() > 0) {
+			File file = new File(event.getModConfigurationDirectory().getParentFile(), ID + "/metrics.txt");
+			MetricsExporter.start(file, Config.getMetricsExportInterval());
+		}
 		PacketDispatcher.initialize();
+		StackClassification.register();
+		HeldItemClassification.register();
 		MinecraftForge.EVENT_BUS.register(new ModEventHandler());
 	}
 
 	@Mod.EventHandler
 	public void postInit(FMLPostInitializationEvent event) {
 		Config.postInit();
+		StartupRegistryCache.buildRegistry(this.startupRegistryFile);
 	}
 
 	@Mod.EventHandler
 	public void processMessages(FMLInterModComms.IMCEvent event) {
-		for (final FMLInterModComms.IMCMessage msg : event.getMessages()) {
-			WeaponRegistry.INSTANCE.processMessage(msg);
-		}
+		// Processed during post-init, unless the registry built from them on a previous launch can be used
+		StartupRegistryCache.addMessages(event.getMessages());
 	}
 
 	@Mod.EventHandler
@@ -59,4 +84,13 @@ public class SwordSkillsApi
 	public void onServerStarted(FMLServerStartedEvent event) {
 		WeaponRegistry.INSTANCE.onServerStart();
 	}
+
+	@Mod.EventHandler
+	public void onServerStopped(FMLServerStoppedEvent event) {
+		WeaponRegistry.INSTANCE.onServerStop();
+		RegistryPayloadCache.clear();
+		RegistryTransferManager.clear();
+		AbstractMessage.clearQueue(Side.SERVER);
+		PacketDispatcher.clear();
+	}
 }
@@ -0,0 +1,190 @@
+package swordskillsapi.api.item;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemAxe;
+import net.minecraft.item.ItemSword;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ *
+ * Immutable set of class-based rules for each {@link WeaponRegistry} list, e.g. every subclass of
+ * ItemTool from a given mod is a weapon, along with the built-in rules that ItemSword is a sword
+ * and ItemAxe a weapon.
+ *
+ * Each rule is the fully-qualified name of a class or interface, optionally followed by '@modid'
+ * to restrict it to items from that mod, and applies to every item whose class extends or
+ * implements it. The rules matching each Item class are found by walking its hierarchy only
+ * once per instance and memoized in a {@link ClassValue}; a new instance, and thus a new cache,
+ * is created whenever the rules change.
+ *
+ */
+final class ClassRules
+{
+	private static final Pattern RULE = Pattern.compile("[A-Za-z_$][\\w$]*(\\.[A-Za-z_$][\\w$]*)*(@[a-z0-9_.-]+)?");
+
+	/** Rules that are always present but never listed, sent or saved */
+	private static final String[][] BUILT_IN = new String[WeaponRegistrySnapshot.LIST_COUNT][];
+
+	static {
+		Arrays.fill(BUILT_IN, new String[0]);
+		BUILT_IN[WeaponRegistrySnapshot.ALLOWED_SWORDS] = new String[] { ItemSword.class.getName() };
+		BUILT_IN[WeaponRegistrySnapshot.ALLOWED_WEAPONS] = new String[] { ItemAxe.class.getName() };
+	}
+
+	static final ClassRules EMPTY = new ClassRules(emptyRules());
+
+	private final Set<String>[] rules;
+
+	/** Bit flags, one per list index, of the rules applying to items of each class */
+	private final ClassValue<ClassMatch> matches = new ClassValue<ClassMatch>() {
+		@Override
+		protected ClassMatch computeValue(Class<?> type) {
+			return ClassRules.this.match(type);
+		}
+	};
+
+	/** Cached result of {@link #getContentHash()}, or 0 if not yet computed */
+	private volatile long contentHash;
+
+	ClassRules(Set<String>[] rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Returns true if the string is a valid rule, i.e. a fully-qualified class name optionally followed by '@modid'
+	 */
+	static boolean isValid(String rule) {
+		return RULE.matcher(rule).matches();
+	}
+
+	/**
+	 * Returns the name of the class to which the rule applies
+	 */
+	static String getClassName(String rule) {
+		int i = rule.indexOf('@');
+		return (i < 0 ? rule : rule.substring(0, i));
+	}
+
+	Set<String> getRules(int index) {
+		return this.rules[index];
+	}
+
+	/**
+	 * Returns the bit flags, one per list index, of the rules applying to the item
+	 */
+	int getFlags(Item item) {
+		ClassMatch match = this.matches.get(item.getClass());
+		if (match.byNamespace.isEmpty()) {
+			return match.flags;
+		}
+		Integer flags = match.byNamespace.get(item.getRegistryName().getNamespace());
+		return match.flags | (flags == null ? 0 : flags);
+	}
+
+	long getContentHash() {
+		long hash = this.contentHash;
+		if (hash == 0L) {
+			hash = 1L;
+			for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+				for (String rule : this.rules[i]) {
+					hash += WeaponRegistryCodec.mix(rule.hashCode() + ((long) i << 32));
+				}
+			}
+			this.contentHash = hash = (hash == 0L ? 1L : hash);
+		}
+		return hash;
+	}
+
+	void writeToBuffer(PacketBuffer buffer) {
+		for (Set<String> list : this.rules) {
+			buffer.writeVarInt(list.size());
+			list.forEach(buffer::writeString);
+		}
+	}
+
+	/**
+	 * Reads the rules written by {@link #writeToBuffer(PacketBuffer)} into the builder
+	 */
+	static void readFromBuffer(PacketBuffer buffer, WeaponRegistrySnapshot.Builder edit) {
+		for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+			int n = buffer.readVarInt();
+			for (int j = 0; j < n; j++) {
+				String rule = buffer.readString(1024);
+				if (isValid(rule)) {
+					edit.addClassRule(i, rule);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Walks the entire hierarchy of the class, including all interfaces, collecting the flags of every matching rule
+	 */
+	private ClassMatch match(Class<?> type) {
+		Set<String> names = new HashSet<String>();
+		Deque<Class<?>> pending = new ArrayDeque<Class<?>>();
+		pending.add(type);
+		while (!pending.isEmpty()) {
+			Class<?> c = pending.poll();
+			if (names.add(c.getName())) {
+				if (c.getSuperclass() != null) {
+					pending.add(c.getSuperclass());
+				}
+				Collections.addAll(pending, c.getInterfaces());
+			}
+		}
+		int flags = 0;
+		Map<String, Integer> byNamespace = new HashMap<String, Integer>();
+		for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+			for (String rule : BUILT_IN[i]) {
+				if (names.contains(rule)) {
+					flags |= 1 << i;
+				}
+			}
+			for (String rule : this.rules[i]) {
+				int at = rule.indexOf('@');
+				if (!names.contains(getClassName(rule))) {
+					continue;
+				} else if (at < 0) {
+					flags |= 1 << i;
+				} else {
+					byNamespace.merge(rule.substring(at + 1), 1 << i, (a, b) -> a | b);
+				}
+			}
+		}
+		return new ClassMatch(flags, byNamespace);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<String>[] emptyRules() {
+		Set<String>[] rules = new Set[WeaponRegistrySnapshot.LIST_COUNT];
+		Arrays.fill(rules, ImmutableSet.of());
+		return rules;
+	}
+
+	private static final class ClassMatch
+	{
+		/** Flags of rules applying to items of this class from any mod */
+		private final int flags;
+
+		/** Flags of rules applying only to items of this class from each mod */
+		private final Map<String, Integer> byNamespace;
+
+		private ClassMatch(int flags, Map<String, Integer> byNamespace) {
+			this.flags = flags;
+			this.byNamespace = (byNamespace.isEmpty() ? Collections.<String, Integer>emptyMap() : byNamespace);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package swordskillsapi.api.item;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.EnumHand;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.metrics.RegistryMetrics;
+
+/**
+ *
+ * Capability attached to every player, caching the sword and weapon status of the items held in
+ * each hand. Cached results remain valid until the player's equipment changes or the {@link WeaponRegistry}
+ * is modified, so skills checking the held items every tick need not query the registry at all.
+ *
+ * Only results depending on the item alone are cached here. Those of {@link IWeapon}s, which may depend
+ * on the stack or anything else, are always passed on to {@link WeaponRegistry#isSword(ItemStack)} and
+ * {@link WeaponRegistry#isWeapon(ItemStack)}, where an {@link ICacheableWeapon}'s results are served from
+ * its stack's {@link StackClassification} while the inputs it declares are unchanged.
+ *
+ */
+public final class HeldItemClassification
+{
+	@CapabilityInject(HeldItemClassification.class)
+	public static Capability<HeldItemClassification> CAPABILITY = null;
+
+	public static final ResourceLocation KEY = new ResourceLocation(SwordSkillsApi.ID, "held_item_classification");
+
+	private static final int SWORD = 1;
+
+	private static final int WEAPON = 2;
+
+	/** The item is an {@link IDashItem} */
+	private static final int DASH_ITEM = 4;
+
+	/** The item is an {@link IWeapon}, whose results may depend on the stack as well as the item and so are never served from this cache */
+	private static final int STACK_DEPENDENT = 8;
+
+	/** Stack held in each hand when last classified, indexed by {@link EnumHand#ordinal()} */
+	private final ItemStack[] stacks = new ItemStack[EnumHand.values().length];
+
+	/** Item of each stack when last classified, which changes to air once a stack is used up */
+	private final Item[] items = new Item[EnumHand.values().length];
+
+	/** Registry version from which each hand's flags were computed, or -1 if not yet computed */
+	private final long[] versions = { -1L, -1L };
+
+	private final int[] flags = new int[EnumHand.values().length];
+
+	private HeldItemClassification() {}
+
+	public static void register() {
+		CapabilityManager.INSTANCE.register(HeldItemClassification.class, new Capability.IStorage<HeldItemClassification>() {
+			@Override
+			public NBTBase writeNBT(Capability<HeldItemClassification> capability, HeldItemClassification instance, EnumFacing side) {
+				return null;
+			}
+
+			@Override
+			public void readNBT(Capability<HeldItemClassification> capability, HeldItemClassification instance, EnumFacing side, NBTBase nbt) {}
+		}, HeldItemClassification::new);
+	}
+
+	/**
+	 * Returns a new provider for a player's capability
+	 */
+	public static ICapabilityProvider createProvider() {
+		return new Provider(new HeldItemClassification());
+	}
+
+	/**
+	 * Returns true if the item held in the given hand is considered a sword; equivalent to,
+	 * but usually much faster than, {@link WeaponRegistry#isSword(ItemStack)} for the held stack
+	 */
+	public static boolean isSword(EntityPlayer player, EnumHand hand) {
+		return (getFlags(player, hand) & SWORD) != 0;
+	}
+
+	/**
+	 * Returns true if the item held in the given hand is considered a melee weapon of any kind; equivalent to,
+	 * but usually much faster than, {@link WeaponRegistry#isWeapon(ItemStack)} for the held stack
+	 */
+	public static boolean isWeapon(EntityPlayer player, EnumHand hand) {
+		return (getFlags(player, hand) & WEAPON) != 0;
+	}
+
+	/**
+	 * Returns true if the item held in the given hand is an {@link IDashItem} allowing the player to Dash.
+	 * Since {@link IDashItem#canDash} depends on the player, it is still called for such items, but all
+	 * other items are known to return false without so much as an instanceof check.
+	 */
+	public static boolean canDash(EntityPlayer player, EnumHand hand) {
+		if ((getFlags(player, hand) & DASH_ITEM) == 0) {
+			return false;
+		}
+		ItemStack stack = player.getHeldItem(hand);
+		return ((IDashItem) stack.getItem()).canDash(stack, player, hand);
+	}
+
+	/**
+	 * Discards the cached results for the given hand, e.g. when the stack held has been modified
+	 */
+	public static void invalidate(EntityPlayer player, EnumHand hand) {
+		HeldItemClassification cache = get(player);
+		if (cache != null) {
+			cache.versions[hand.ordinal()] = -1L;
+		}
+	}
+
+	@Nullable
+	private static HeldItemClassification get(EntityPlayer player) {
+		return (CAPABILITY == null ? null : player.getCapability(CAPABILITY, null));
+	}
+
+	private static int getFlags(EntityPlayer player, EnumHand hand) {
+		HeldItemClassification cache = get(player);
+		if (cache == null) {
+			return classify(player.getHeldItem(hand));
+		}
+		int i = hand.ordinal();
+		ItemStack stack = player.getHeldItem(hand);
+		long version = WeaponRegistry.INSTANCE.getVersion();
+		if (stack == cache.stacks[i] && stack.getItem() == cache.items[i] && version == cache.versions[i] && (cache.flags[i] & STACK_DEPENDENT) == 0) {
+			RegistryMetrics.CLASSIFY_HELD_CACHED.increment();
+			return cache.flags[i];
+		}
+		int flags = classify(stack);
+		cache.stacks[i] = stack;
+		cache.items[i] = stack.getItem();
+		cache.versions[i] = version;
+		cache.flags[i] = flags;
+		return flags;
+	}
+
+	private static int classify(ItemStack stack) {
+		Item item = stack.getItem();
+		return (WeaponRegistry.INSTANCE.isSword(stack) ? SWORD : 0)
+				| (WeaponRegistry.INSTANCE.isWeapon(stack) ? WEAPON : 0)
+				| (item instanceof IDashItem ? DASH_ITEM : 0)
+				| (item instanceof IWeapon ? STACK_DEPENDENT : 0);
+	}
+
+	private static final class Provider implements ICapabilityProvider
+	{
+		private final HeldItemClassification instance;
+
+		private Provider(HeldItemClassification instance) {
+			this.instance = instance;
+		}
+
+		@Override
+		public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing facing) {
+			return capability == CAPABILITY;
+		}
+
+		@Override
+		public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
+			return (capability == CAPABILITY ? capability.cast(this.instance) : null);
+		}
+	}
+}
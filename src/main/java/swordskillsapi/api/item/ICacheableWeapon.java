@@ -0,0 +1,24 @@
+package swordskillsapi.api.item;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ *
+ * An {@link IWeapon} whose results depend on nothing but the item itself and the stack
+ * inputs it declares, allowing them to be cached on each ItemStack and recomputed only
+ * when one of those inputs, or the {@link WeaponRegistry}, has changed.
+ *
+ * Items whose results depend on anything else, e.g. the player holding the stack or the
+ * time of day, should implement {@link IWeapon} directly instead.
+ *
+ */
+public interface ICacheableWeapon extends IWeapon {
+
+	/**
+	 * Return the stack inputs on which {@link #isSword(ItemStack)} and {@link #isWeapon(ItemStack)} depend,
+	 * e.g. {@link WeaponDependencies#ITEM} if they always return the same values for this item.
+	 * This is called only once per stack, and should always return the same value for the same item.
+	 */
+	WeaponDependencies getWeaponDependencies();
+
+}
@@ -16,6 +16,9 @@ import net.minecraft.item.ItemStack;
  * 
  * For items that do not use NBT or stack damage, consider registering them as weapons
  * or as swords via the {@link WeaponRegistry} using FML's Inter-Mod Communications.
+ * 
+ * For items whose results depend only on stack damage or specific NBT keys, consider
+ * implementing {@link ICacheableWeapon} instead so that the results can be cached.
  *
  */
 public interface IWeapon {
@@ -0,0 +1,206 @@
+package swordskillsapi.api.item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.util.ResourceLocation;
+
+/**
+ *
+ * A rule matching many item registry names at once, accepted wherever an item name is expected:
+ *
+ * 'modid:*' matches every item from that mod and '*:*' every item at all, 'modid:iron_*' and
+ * 'modid:*_katana' match by prefix or suffix, other uses of '*' such as '*:*_katana_*' match as globs,
+ * and '/regex/' matches the entire 'modid:name' string against a regular expression.
+ *
+ * Patterns are never stored in the registry; they are expanded into concrete entries against the
+ * items registered at the time they are applied, so lookups cost the same as for any other entry.
+ *
+ */
+final class ItemPattern
+{
+	private enum Kind { NAMESPACE, PREFIX, SUFFIX, REGEX }
+
+	private final String source;
+
+	private final Kind kind;
+
+	/** Namespace the pattern is restricted to, or null for any namespace; not used by {@link Kind#REGEX} */
+	@Nullable
+	private final String namespace;
+
+	/** Path prefix or suffix to match */
+	private final String text;
+
+	private final Pattern regex;
+
+	private ItemPattern(String source, Kind kind, @Nullable String namespace, String text, @Nullable Pattern regex) {
+		this.source = source;
+		this.kind = kind;
+		this.namespace = namespace;
+		this.text = text;
+		this.regex = regex;
+	}
+
+	/**
+	 * Returns true if the string should be treated as a pattern rather than as a single item name
+	 */
+	static boolean isPattern(String s) {
+		return s.indexOf('*') >= 0 || (s.length() > 2 && s.startsWith("/") && s.endsWith("/"));
+	}
+
+	/**
+	 * Compiles the pattern
+	 * @throws IllegalArgumentException if the pattern is not valid
+	 */
+	static ItemPattern compile(String s) {
+		if (s.length() > 2 && s.startsWith("/") && s.endsWith("/")) {
+			try {
+				return new ItemPattern(s, Kind.REGEX, null, "", Pattern.compile(s.substring(1, s.length() - 1)));
+			} catch (PatternSyntaxException e) {
+				throw new IllegalArgumentException("Invalid regular expression " + s + ": " + e.getDescription());
+			}
+		}
+		int colon = s.indexOf(':');
+		if (colon < 1 || colon == s.length() - 1 || s.indexOf(':', colon + 1) >= 0) {
+			throw new IllegalArgumentException("Pattern must be in the format 'modid:name' using '*' as a wildcard: " + s);
+		}
+		String namespace = s.substring(0, colon).toLowerCase();
+		String path = s.substring(colon + 1).toLowerCase();
+		if (namespace.equals("*")) {
+			namespace = null;
+		} else if (namespace.indexOf('*') >= 0) {
+			return glob(s);
+		}
+		int star = path.indexOf('*');
+		if (path.equals("*") && namespace == null) {
+			// Every path starts with the empty string
+			return new ItemPattern(s, Kind.PREFIX, null, "", null);
+		} else if (path.equals("*")) {
+			return new ItemPattern(s, Kind.NAMESPACE, namespace, "", null);
+		} else if (star == path.length() - 1 && path.lastIndexOf('*', star - 1) < 0) {
+			return new ItemPattern(s, Kind.PREFIX, namespace, path.substring(0, star), null);
+		} else if (star == 0 && path.indexOf('*', 1) < 0) {
+			return new ItemPattern(s, Kind.SUFFIX, namespace, path.substring(1), null);
+		}
+		return glob(s);
+	}
+
+	private static ItemPattern glob(String s) {
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for (int star = s.indexOf('*'); star >= 0; star = s.indexOf('*', start)) {
+			if (star > start) {
+				regex.append(Pattern.quote(s.substring(start, star).toLowerCase()));
+			}
+			// Wildcards never span the namespace separator
+			regex.append("[^:]*");
+			start = star + 1;
+		}
+		if (start < s.length()) {
+			regex.append(Pattern.quote(s.substring(start).toLowerCase()));
+		}
+		return new ItemPattern(s, Kind.REGEX, null, "", Pattern.compile(regex.toString()));
+	}
+
+	boolean matches(ResourceLocation location) {
+		switch (this.kind) {
+		case NAMESPACE: return location.getNamespace().equals(this.namespace);
+		case PREFIX: return (this.namespace == null || location.getNamespace().equals(this.namespace)) && location.getPath().startsWith(this.text);
+		case SUFFIX: return (this.namespace == null || location.getNamespace().equals(this.namespace)) && location.getPath().endsWith(this.text);
+		default: return this.regex.matcher(location.toString()).matches();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.source;
+	}
+
+	/**
+	 *
+	 * Combines any number of patterns so that each item name need only be tested once against all of them:
+	 * namespace wildcards are looked up by namespace, and regular expressions are first tested as a single
+	 * alternation so that names matching none of them are rejected without testing each one.
+	 *
+	 * Joining expressions renumbers their capturing groups, so any using backreferences or named groups
+	 * are left out of the alternation and always tested on their own.
+	 *
+	 */
+	static final class Matcher
+	{
+		/** Finds numbered or named backreferences and named groups, which would not survive being joined with other expressions */
+		private static final Pattern GROUP_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)|\\(\\?<[a-zA-Z]");
+
+		private final List<ItemPattern> patterns;
+
+		/** Indices of {@link Kind#NAMESPACE} patterns for each namespace */
+		private final Map<String, List<Integer>> byNamespace = new HashMap<String, List<Integer>>();
+
+		/** Indices of {@link Kind#PREFIX} and {@link Kind#SUFFIX} patterns */
+		private final List<Integer> affixes = new ArrayList<Integer>();
+
+		/** Indices of {@link Kind#REGEX} patterns tested only if {@link #combined} matches */
+		private final List<Integer> regexes = new ArrayList<Integer>();
+
+		/** Indices of {@link Kind#REGEX} patterns that cannot be part of {@link #combined} and are always tested */
+		private final List<Integer> standalone = new ArrayList<Integer>();
+
+		/** Alternation of the regular expressions in {@link #regexes}, or null if there are none */
+		@Nullable
+		private final Pattern combined;
+
+		Matcher(List<ItemPattern> patterns) {
+			this.patterns = patterns;
+			for (int i = 0; i < patterns.size(); i++) {
+				ItemPattern pattern = patterns.get(i);
+				switch (pattern.kind) {
+				case NAMESPACE: this.byNamespace.computeIfAbsent(pattern.namespace, k -> new ArrayList<Integer>()).add(i); break;
+				case PREFIX:
+				case SUFFIX: this.affixes.add(i); break;
+				default: (GROUP_REFERENCE.matcher(pattern.regex.pattern()).find() ? this.standalone : this.regexes).add(i);
+				}
+			}
+			this.combined = (this.regexes.isEmpty() ? null : Pattern.compile(this.regexes.stream()
+					.map(i -> "(?:" + patterns.get(i).regex.pattern() + ")")
+					.collect(Collectors.joining("|"))));
+		}
+
+		/**
+		 * Passes the index of every pattern matching the location to the consumer, in ascending order
+		 */
+		void match(ResourceLocation location, IntConsumer consumer) {
+			List<Integer> matches = new ArrayList<Integer>(2);
+			List<Integer> namespace = this.byNamespace.get(location.getNamespace());
+			if (namespace != null) {
+				matches.addAll(namespace);
+			}
+			for (int i : this.affixes) {
+				if (this.patterns.get(i).matches(location)) {
+					matches.add(i);
+				}
+			}
+			if (this.combined != null && this.combined.matcher(location.toString()).matches()) {
+				for (int i : this.regexes) {
+					if (this.patterns.get(i).matches(location)) {
+						matches.add(i);
+					}
+				}
+			}
+			for (int i : this.standalone) {
+				if (this.patterns.get(i).matches(location)) {
+					matches.add(i);
+				}
+			}
+			matches.stream().sorted().forEach(consumer::accept);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package swordskillsapi.api.item;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import swordskillsapi.SwordSkillsApi;
+
+/**
+ *
+ * Capability attached to every ItemStack of an {@link ICacheableWeapon}, caching its sword and
+ * weapon status along with the inputs they were computed from: the registry version and the
+ * stack's declared {@link WeaponDependencies}. While none of those have changed, classifying
+ * the stack again costs only a comparison of those inputs.
+ *
+ * The cache is never saved; it is simply recomputed the first time a loaded stack is classified.
+ *
+ */
+public final class StackClassification
+{
+	@CapabilityInject(StackClassification.class)
+	public static Capability<StackClassification> CAPABILITY = null;
+
+	public static final ResourceLocation KEY = new ResourceLocation(SwordSkillsApi.ID, "stack_classification");
+
+	static final int SWORD = 1;
+
+	static final int WEAPON = 2;
+
+	private final WeaponDependencies dependencies;
+
+	/** Registry version from which the flags were computed, or -1 if not yet computed */
+	private long version = -1L;
+
+	private int damage;
+
+	/** Copies of the values of each declared NBT key when the flags were computed, null for missing keys */
+	private final NBTBase[] nbt;
+
+	private int flags;
+
+	private StackClassification(WeaponDependencies dependencies) {
+		this.dependencies = dependencies;
+		this.nbt = new NBTBase[dependencies.getNbtKeys().length];
+	}
+
+	public static void register() {
+		CapabilityManager.INSTANCE.register(StackClassification.class, new Capability.IStorage<StackClassification>() {
+			@Override
+			public NBTBase writeNBT(Capability<StackClassification> capability, StackClassification instance, EnumFacing side) {
+				return null;
+			}
+
+			@Override
+			public void readNBT(Capability<StackClassification> capability, StackClassification instance, EnumFacing side, NBTBase nbt) {}
+		}, () -> new StackClassification(WeaponDependencies.ITEM));
+	}
+
+	/**
+	 * Returns a new provider for the stack's capability
+	 */
+	public static ICapabilityProvider createProvider(ICacheableWeapon weapon) {
+		return new Provider(new StackClassification(weapon.getWeaponDependencies()));
+	}
+
+	/**
+	 * Returns the stack's cache, or null if it has none, e.g. if the capability is not registered
+	 */
+	@Nullable
+	static StackClassification get(ItemStack stack) {
+		return (CAPABILITY == null ? null : stack.getCapability(CAPABILITY, null));
+	}
+
+	/**
+	 * Returns the cached {@link #SWORD} and {@link #WEAPON} flags if still valid for the stack and registry version, otherwise
+	 * records the stack's current inputs and returns -1, in which case the flags must be computed and {@link #set(long, int) set}
+	 */
+	int get(ItemStack stack, long version) {
+		boolean valid = (version == this.version);
+		if (this.dependencies.dependsOnDamage()) {
+			int damage = stack.getItemDamage();
+			valid &= (damage == this.damage);
+			this.damage = damage;
+		}
+		String[] keys = this.dependencies.getNbtKeys();
+		if (keys.length > 0) {
+			NBTTagCompound tag = stack.getTagCompound();
+			for (int i = 0; i < keys.length; i++) {
+				NBTBase value = (tag == null ? null : tag.getTag(keys[i]));
+				if (value == null ? this.nbt[i] != null : !value.equals(this.nbt[i])) {
+					this.nbt[i] = (value == null ? null : value.copy());
+					valid = false;
+				}
+			}
+		}
+		if (valid) {
+			return this.flags;
+		}
+		// Remains invalid until set, e.g. if computing the flags fails
+		this.version = -1L;
+		return -1;
+	}
+
+	void set(long version, int flags) {
+		this.version = version;
+		this.flags = flags;
+	}
+
+	private static final class Provider implements ICapabilityProvider
+	{
+		private final StackClassification instance;
+
+		private Provider(StackClassification instance) {
+			this.instance = instance;
+		}
+
+		@Override
+		public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing facing) {
+			return capability == CAPABILITY;
+		}
+
+		@Override
+		public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
+			return (capability == CAPABILITY ? capability.cast(this.instance) : null);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package swordskillsapi.api.item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * Handle for a named numeric weapon attribute, e.g. 'reach' or 'mymod.swing_speed', whose value for
+ * each item is held in the {@link WeaponRegistry} alongside its lists and synchronized to clients with them.
+ * Values may be set from the config, by IMC, by command or via {@link WeaponRegistry.Batch}.
+ *
+ * Each attribute is stored as a primitive array indexed by numeric item id, so obtain the handle
+ * once, e.g. in a static field, and pass it to {@link WeaponRegistry#getAttribute(net.minecraft.item.Item, WeaponAttribute)}:
+ * each read is then a single array access without hashing or boxing. Handles are never removed,
+ * so the same name always returns the same handle.
+ *
+ */
+public final class WeaponAttribute
+{
+	private static final Pattern NAME = Pattern.compile("[a-z0-9_.-]{1,64}");
+
+	/** Maximum number of distinct attributes, guarding against unbounded growth from malformed packets */
+	private static final int MAX_ATTRIBUTES = 256;
+
+	private static final Map<String, WeaponAttribute> BY_NAME = new HashMap<String, WeaponAttribute>();
+
+	private static final List<WeaponAttribute> BY_INDEX = new ArrayList<WeaponAttribute>();
+
+	public final String name;
+
+	/** Index of this attribute's column in every snapshot, assigned in order of creation */
+	final int index;
+
+	private WeaponAttribute(String name, int index) {
+		this.name = name;
+		this.index = index;
+	}
+
+	/**
+	 * Returns the attribute with the given name, creating it if needed
+	 * @param name Lower-case letters, digits, '_', '.' and '-' only, e.g. 'reach' or 'mymod.swing_speed'
+	 * @throws IllegalArgumentException if the name is invalid or too many attributes exist already
+	 */
+	public static synchronized WeaponAttribute get(String name) {
+		WeaponAttribute attribute = BY_NAME.get(name);
+		if (attribute == null) {
+			if (!isValidName(name)) {
+				throw new IllegalArgumentException("Weapon attribute names may contain only lower-case letters, digits, '_', '.' and '-': " + name);
+			} else if (BY_NAME.size() >= MAX_ATTRIBUTES) {
+				throw new IllegalArgumentException("Too many weapon attributes, unable to add " + name);
+			}
+			attribute = new WeaponAttribute(name, BY_NAME.size());
+			BY_NAME.put(name, attribute);
+			BY_INDEX.add(attribute);
+		}
+		return attribute;
+	}
+
+	static synchronized String getName(int index) {
+		return BY_INDEX.get(index).name;
+	}
+
+	/**
+	 * Returns the names of all attributes created so far, in order of creation
+	 */
+	public static synchronized List<String> getNames() {
+		List<String> names = new ArrayList<String>(BY_INDEX.size());
+		BY_INDEX.forEach(attribute -> names.add(attribute.name));
+		return names;
+	}
+
+	/**
+	 * Returns true if the string may be used as an attribute name
+	 */
+	public static boolean isValidName(String name) {
+		return NAME.matcher(name).matches();
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+}
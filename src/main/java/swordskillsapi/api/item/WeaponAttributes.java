@@ -0,0 +1,168 @@
+package swordskillsapi.api.item;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import net.minecraft.item.Item;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.SwordSkillsApi;
+
+/**
+ *
+ * Immutable values of every {@link WeaponAttribute} for a {@link WeaponRegistrySnapshot}.
+ *
+ * Values are kept by item name, which is what is sent, saved and listed, and each attribute's
+ * values are resolved on first read into a column of primitive floats indexed by numeric item id,
+ * with NaN for items without a value. Like the class rules, an instance is shared by following
+ * snapshots until any value changes, so each column is only resolved once.
+ *
+ */
+final class WeaponAttributes
+{
+	static final WeaponAttributes EMPTY = new WeaponAttributes(Collections.<Map<ResourceLocation, Float>>emptyList());
+
+	/** Immutable values of each attribute by item name, indexed by {@link WeaponAttribute#index} */
+	private final List<Map<ResourceLocation, Float>> values;
+
+	/**
+	 * Column of values for each attribute, resolved lazily from {@link #values}. Columns may be resolved
+	 * concurrently by several readers, but since each is immutable once published and always has the same
+	 * contents, a lost write merely means the column will be resolved again.
+	 */
+	private final Column[] columns;
+
+	/** Cached result of {@link #getContentHash()}, or 0 if not yet computed */
+	private volatile long contentHash;
+
+	/**
+	 * @param values Immutable maps, indexed by {@link WeaponAttribute#index}; attributes beyond the end have no values
+	 */
+	WeaponAttributes(List<Map<ResourceLocation, Float>> values) {
+		this.values = values;
+		this.columns = new Column[values.size()];
+	}
+
+	List<Map<ResourceLocation, Float>> getValues() {
+		return this.values;
+	}
+
+	Map<ResourceLocation, Float> getValues(int index) {
+		return (index < this.values.size() ? this.values.get(index) : ImmutableMap.<ResourceLocation, Float>of());
+	}
+
+	/**
+	 * Returns the item's value for the attribute with the given index, or NaN if it has none
+	 */
+	float get(Item item, int index) {
+		if (index >= this.columns.length) {
+			return Float.NaN;
+		}
+		Column column = this.columns[index];
+		if (column == null) {
+			column = this.resolve(index);
+		}
+		int id = Item.getIdFromItem(item);
+		return (id >= 0 && id < column.values.length ? column.values[id] : Float.NaN);
+	}
+
+	/**
+	 * Resolves the item names of an attribute's values to numeric item ids; values for items that are not registered are ignored
+	 */
+	private Column resolve(int index) {
+		Map<ResourceLocation, Float> values = this.values.get(index);
+		int[] ids = new int[values.size()];
+		float[] found = new float[values.size()];
+		int n = 0;
+		int max = -1;
+		for (Map.Entry<ResourceLocation, Float> entry : values.entrySet()) {
+			Item item = Item.REGISTRY.getObject(entry.getKey());
+			int id = (item == null ? -1 : Item.getIdFromItem(item));
+			if (id >= 0) {
+				ids[n] = id;
+				found[n++] = entry.getValue();
+				max = Math.max(max, id);
+			}
+		}
+		float[] column = new float[max + 1];
+		Arrays.fill(column, Float.NaN);
+		for (int i = 0; i < n; i++) {
+			column[ids[i]] = found[i];
+		}
+		Column resolved = new Column(column);
+		this.columns[index] = resolved;
+		return resolved;
+	}
+
+	long getContentHash() {
+		long hash = this.contentHash;
+		if (hash == 0L) {
+			hash = 1L;
+			for (int i = 0; i < this.values.size(); i++) {
+				long name = (long) WeaponAttribute.getName(i).hashCode() << 32;
+				for (Map.Entry<ResourceLocation, Float> entry : this.values.get(i).entrySet()) {
+					hash += WeaponRegistryCodec.mix((name ^ (entry.getKey().hashCode() & 0xFFFFFFFFL)) + Float.floatToIntBits(entry.getValue()));
+				}
+			}
+			this.contentHash = hash = (hash == 0L ? 1L : hash);
+		}
+		return hash;
+	}
+
+	void writeToBuffer(PacketBuffer buffer) {
+		int n = 0;
+		for (Map<ResourceLocation, Float> map : this.values) {
+			n += (map.isEmpty() ? 0 : 1);
+		}
+		buffer.writeVarInt(n);
+		for (int i = 0; i < this.values.size(); i++) {
+			Map<ResourceLocation, Float> map = this.values.get(i);
+			if (!map.isEmpty()) {
+				buffer.writeString(WeaponAttribute.getName(i));
+				buffer.writeVarInt(map.size());
+				map.forEach((location, value) -> {
+					buffer.writeString(location.toString());
+					buffer.writeFloat(value);
+				});
+			}
+		}
+	}
+
+	/**
+	 * Reads the values written by {@link #writeToBuffer(PacketBuffer)} into the builder
+	 */
+	static void readFromBuffer(PacketBuffer buffer, WeaponRegistrySnapshot.Builder edit) {
+		int attributes = buffer.readVarInt();
+		for (int i = 0; i < attributes; i++) {
+			String name = buffer.readString(64);
+			WeaponAttribute attribute = null;
+			try {
+				attribute = WeaponAttribute.get(name);
+			} catch (IllegalArgumentException e) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Ignoring received weapon attribute: %s", e.getMessage());
+			}
+			int n = buffer.readVarInt();
+			for (int j = 0; j < n; j++) {
+				ResourceLocation location = WeaponRegistry.getResourceLocation(buffer.readString(256));
+				float value = buffer.readFloat();
+				if (attribute != null && location != null && Float.isFinite(value)) {
+					edit.setAttribute(attribute.index, location, value);
+				}
+			}
+		}
+	}
+
+	private static final class Column
+	{
+		/** Value for each item indexed by numeric id, NaN where unset; final so that a racily published column is always seen complete */
+		private final float[] values;
+
+		private Column(float[] values) {
+			this.values = values;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package swordskillsapi.api.item;
+
+import java.util.Arrays;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ *
+ * Declares which ItemStack inputs an {@link ICacheableWeapon}'s results depend on:
+ * the item only, its damage value, and/or the values of specific top-level NBT keys.
+ *
+ */
+public final class WeaponDependencies
+{
+	/** Results depend only on the item itself */
+	public static final WeaponDependencies ITEM = new WeaponDependencies(false, new String[0]);
+
+	/** Results depend on the item and the stack's damage value */
+	public static final WeaponDependencies DAMAGE = new WeaponDependencies(true, new String[0]);
+
+	private final boolean damage;
+
+	private final String[] nbtKeys;
+
+	private WeaponDependencies(boolean damage, String[] nbtKeys) {
+		this.damage = damage;
+		this.nbtKeys = nbtKeys;
+	}
+
+	/**
+	 * @param damage  True if results depend on the stack's {@link ItemStack#getItemDamage() damage value}
+	 * @param nbtKeys Top-level keys of the stack's NBT tag whose values the results depend on
+	 */
+	public static WeaponDependencies of(boolean damage, String... nbtKeys) {
+		if (nbtKeys.length == 0) {
+			return (damage ? DAMAGE : ITEM);
+		}
+		return new WeaponDependencies(damage, nbtKeys.clone());
+	}
+
+	public boolean dependsOnDamage() {
+		return this.damage;
+	}
+
+	/**
+	 * Returns the top-level NBT keys on which the results depend; the returned array must not be modified
+	 */
+	String[] getNbtKeys() {
+		return this.nbtKeys;
+	}
+
+	@Override
+	public String toString() {
+		return "WeaponDependencies[damage=" + this.damage + ", nbt=" + Arrays.toString(this.nbtKeys) + "]";
+	}
+}
@@ -1,7 +1,16 @@
 package swordskillsapi.api.item;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -11,14 +20,21 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemAxe;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemSword;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTPrimitive;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.event.FMLInterModComms;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
+import swordskillsapi.Config;
 import swordskillsapi.SwordSkillsApi;
-import swordskillsapi.network.PacketDispatcher;
-import swordskillsapi.network.client.SyncWeaponRegistryPacket;
+import swordskillsapi.metrics.RegistryMetrics;
+import swordskillsapi.network.RegistrySyncBuffer;
 
 /**
  * 
@@ -55,43 +71,281 @@ public class WeaponRegistry
 	/** FML Inter-Mod Communication suffix for adding or removing an item in override mode */
 	public static final String IMC_OVERRIDE = "_override";
 
-	private final WeaponRegistryHolder allowed_swords = new WeaponRegistryHolder("Allowed Swords");
+	/**
+	 * FML Inter-Mod Communication key for registering many items at once as a single {@link Batch};
+	 * the message must be an NBTTagCompound whose keys are any of the other IMC keys, optionally
+	 * with the {@link #IMC_OVERRIDE} suffix, each mapped to a list of 'modid:registered_item_name'
+	 * strings, e.g. {allow_sword:["modid:sword_a","modid:sword_b"],forbid_weapon_override:["modid:staff"]}
+	 */
+	public static final String IMC_BATCH = "batch";
+
+	/**
+	 * FML Inter-Mod Communication key for setting {@link WeaponAttribute weapon attributes}; the message may be a string
+	 * such as "modid:item_name reach=4.5 weight=2", see {@link Batch#setAttributes(String)}, or an NBTTagCompound mapping
+	 * item names to compounds of numeric attribute values, e.g. {"modid:item_name":{reach:4.5f,weight:2.0f}}
+	 */
+	public static final String IMC_ATTRIBUTES = "weapon_attributes";
+
+	/**
+	 * Prefix identifying a class rule wherever an item name is accepted, e.g. in the config, IMC messages or commands:
+	 * "class:net.minecraft.item.ItemTool" applies to every item extending or implementing that class or interface,
+	 * and "class:net.minecraft.item.ItemTool@modid" only to such items from the given mod. Forbidding rules take
+	 * precedence over allowing ones, exactly as for items listed by name.
+	 */
+	public static final String CLASS_RULE_PREFIX = "class:";
+
+	private final WeaponRegistryHolder allowed_swords = new WeaponRegistryHolder("Allowed Swords", IMC_ALLOW_SWORD, WeaponRegistrySnapshot.ALLOWED_SWORDS);
 
-	private final WeaponRegistryHolder allowed_weapons = new WeaponRegistryHolder("Allowed Weapons");
+	private final WeaponRegistryHolder allowed_weapons = new WeaponRegistryHolder("Allowed Weapons", IMC_ALLOW_WEAPON, WeaponRegistrySnapshot.ALLOWED_WEAPONS);
 
-	private final WeaponRegistryHolder forbidden_swords = new WeaponRegistryHolder("Forbidden Swords");
+	private final WeaponRegistryHolder forbidden_swords = new WeaponRegistryHolder("Forbidden Swords", IMC_FORBID_SWORD, WeaponRegistrySnapshot.FORBIDDEN_SWORDS);
 
-	private final WeaponRegistryHolder forbidden_weapons = new WeaponRegistryHolder("Forbidden Weapons");
+	private final WeaponRegistryHolder forbidden_weapons = new WeaponRegistryHolder("Forbidden Weapons", IMC_FORBID_WEAPON, WeaponRegistrySnapshot.FORBIDDEN_WEAPONS);
 
+	/** All registry lists, in the same order as their indices */
+	private final WeaponRegistryHolder[] holders = { allowed_swords, allowed_weapons, forbidden_swords, forbidden_weapons };
+
+	/**
+	 * The registry in effect for the current game: the server's own registry on a dedicated or integrated server,
+	 * shared as-is with the client hosting an integrated server since its state is immutable once published,
+	 * or, on a client connected to a remote server, a copy of that server's registry.
+	 */
 	public static final WeaponRegistry INSTANCE = new WeaponRegistry();
 
-	private boolean hasServerStarted = false;
+	/**
+	 * The current state of the registry; writers replace it as a whole while holding this
+	 * registry's lock, so readers on any thread always see a consistent view without locking.
+	 */
+	private volatile WeaponRegistrySnapshot snapshot = WeaponRegistrySnapshot.EMPTY;
+
+	private volatile boolean hasServerStarted = false;
+
+	/** Randomly generated identifier distinguishing this registry's versions from those of any other instance, e.g. after a restart */
+	private final long epoch = new Random().nextLong();
+
+	/** Recent changes, oldest first, from which deltas are computed for reconnecting clients; guarded by this registry's lock */
+	private final Deque<JournalEntry> journal = new ArrayDeque<JournalEntry>();
+
+	/** Oldest version from which the journal can still produce a complete delta */
+	private long journalStart = 0L;
+
+	/** Epoch and version of the server registry that this client-side registry was last synchronized with */
+	private long syncedEpoch = 0L;
+
+	private long syncedVersion = -1L;
+
+	/** Version of this registry's own snapshot after the last synchronization, used to detect local changes made since then */
+	private long syncedLocalVersion = -1L;
+
+	/** This client's own registry state, set aside while connected to a remote server whose registry replaces it */
+	private WeaponRegistrySnapshot localSnapshot = null;
 
 	public WeaponRegistry() {}
 
-	public void copy(WeaponRegistry o) {
-		this.allowed_swords.items.clear();
-		this.allowed_swords.items.addAll(o.allowed_swords.items);
-		this.allowed_weapons.items.clear();
-		this.allowed_weapons.items.addAll(o.allowed_weapons.items);
-		this.forbidden_swords.items.clear();
-		this.forbidden_swords.items.addAll(o.forbidden_swords.items);
-		this.forbidden_weapons.items.clear();
-		this.forbidden_weapons.items.addAll(o.forbidden_weapons.items);
+	public synchronized void copy(WeaponRegistry o) {
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		edit.replaceWith(o.snapshot);
+		this.publish(edit);
+	}
+
+	/**
+	 * Replaces the client-side registry with the server's registry, as of the given server epoch and version
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized void copy(WeaponRegistry o, long epoch, long version) {
+		this.copy(o.snapshot, epoch, version);
+	}
+
+	/**
+	 * Replaces the client-side registry with a snapshot of the server's registry, as of the given server epoch and version
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized void copy(WeaponRegistrySnapshot snapshot, long epoch, long version) {
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		edit.replaceWith(snapshot);
+		this.publish(edit);
+		this.syncedEpoch = epoch;
+		this.syncedVersion = version;
+		this.syncedLocalVersion = this.snapshot.getVersion();
+	}
+
+	/**
+	 * Returns the current immutable state of the registry
+	 */
+	public WeaponRegistrySnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Returns the version of the current registry state, incremented each time the registry changes
+	 */
+	public long getVersion() {
+		return this.snapshot.getVersion();
+	}
+
+	/**
+	 * Returns the randomly generated epoch of this registry; versions are only comparable within the same epoch
+	 */
+	public long getEpoch() {
+		return this.epoch;
+	}
+
+	/**
+	 * Publishes the changes collected by the builder, if any, as the new registry state and records them in the journal;
+	 * for {@link #INSTANCE}, also posts a {@link WeaponRegistryChangedEvent}
+	 */
+	private void publish(WeaponRegistrySnapshot.Builder edit) {
+		if (!edit.hasChanges()) {
+			return;
+		}
+		WeaponRegistrySnapshot previous = this.snapshot;
+		WeaponRegistrySnapshot snapshot = edit.build();
+		this.snapshot = snapshot;
+		RegistryMetrics.REGISTRY_COMMITS.increment();
+		RegistryMetrics.REGISTRY_CHANGES.add(edit.isReset() ? snapshot.size() : edit.getChanges().size());
+		if (this == INSTANCE) {
+			// Registries decoded from packets or files are never seen by anyone else
+			boolean full = (edit.isReset() || edit.hasClassRuleChanges());
+			MinecraftForge.EVENT_BUS.post(new WeaponRegistryChangedEvent(this, previous, snapshot, (full ? null : edit.getChanges())));
+		}
+		if (!edit.isJournaled()) {
+			// Changed class rules may affect any number of items and attributes are not journaled, so only a full registry can bring clients up to date
+			this.journal.clear();
+			this.journalStart = snapshot.getVersion();
+			return;
+		}
+		for (ResourceLocation location : edit.getChanges()) {
+			this.journal.addLast(new JournalEntry(snapshot.getVersion(), location, snapshot.getListIndex(location)));
+		}
+		int capacity = Config.getJournalSize();
+		while (this.journal.size() > capacity) {
+			this.journalStart = this.journal.removeFirst().version;
+		}
+	}
+
+	/**
+	 * Publishes the changes as {@link #publish(WeaponRegistrySnapshot.Builder)} and, once the server
+	 * has started, buffers each changed entry to be sent to all connected clients at the end of the tick;
+	 * if any class rules or attributes changed, clients are instead told to request the registry again.
+	 * In that case none of the entries are sent as a delta, since a client applying one would consider
+	 * itself up to date with the new version and never request the class rules or attributes.
+	 */
+	private void commit(WeaponRegistrySnapshot.Builder edit) {
+		this.publish(edit);
+		if (!this.hasServerStarted || !edit.hasChanges() || edit.isReset()) {
+			return;
+		} else if (!edit.isJournaled()) {
+			RegistrySyncBuffer.resync(this);
+			return;
+		}
+		WeaponRegistrySnapshot snapshot = this.snapshot;
+		for (ResourceLocation location : edit.getChanges()) {
+			WeaponRegistryHolder registry = this.getRegistryByIndex(snapshot.getListIndex(location));
+			RegistrySyncBuffer.add(this.epoch, snapshot.getVersion(), location, registry);
+		}
+	}
+
+	/**
+	 * Returns the final registry list of every item changed since the given version, with null values for
+	 * items no longer on any list, or null if the journal no longer covers that version and a full
+	 * registry transfer is required instead.
+	 */
+	@Nullable
+	public synchronized Map<ResourceLocation, WeaponRegistryHolder> getChangesSince(long version) {
+		if (version < this.journalStart || version > this.snapshot.getVersion()) {
+			return null;
+		}
+		Map<ResourceLocation, WeaponRegistryHolder> changes = new LinkedHashMap<ResourceLocation, WeaponRegistryHolder>();
+		for (JournalEntry entry : this.journal) {
+			if (entry.version > version) {
+				changes.put(entry.location, this.getRegistryByIndex(entry.list));
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Returns the epoch of the server registry with which this client-side registry was last synchronized, or 0 if none
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized long getSyncedEpoch() {
+		return this.syncedEpoch;
+	}
+
+	/**
+	 * Returns the server registry version with which this client-side registry was last synchronized,
+	 * or -1 if it was never synchronized with a registry of the given epoch or has since been changed locally
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized long getSyncedVersion(long epoch) {
+		if (epoch != this.syncedEpoch || this.syncedLocalVersion != this.snapshot.getVersion()) {
+			return -1L;
+		}
+		return this.syncedVersion;
+	}
+
+	/**
+	 * Sets this client's own registry state aside when connecting to a remote server, so that the server's
+	 * registry does not outlast the connection; not called for the integrated server, whose registry is this one
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized void onConnectedToRemoteServer() {
+		if (this.localSnapshot == null) {
+			this.localSnapshot = this.snapshot;
+		}
+	}
+
+	/**
+	 * Restores the state set aside by {@link #onConnectedToRemoteServer()}, if any, upon disconnecting; the server's
+	 * registry should first be saved with {@link swordskillsapi.client.RegistryDiskCache#save RegistryDiskCache}
+	 * so that the client can resume from it when reconnecting
+	 */
+	@SideOnly(Side.CLIENT)
+	public synchronized void onDisconnectedFromRemoteServer() {
+		if (this.localSnapshot != null) {
+			WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+			edit.replaceWith(this.localSnapshot);
+			this.publish(edit);
+			this.localSnapshot = null;
+			this.syncedEpoch = 0L;
+			this.syncedVersion = -1L;
+		}
+	}
+
+	/**
+	 * Updates the synchronization state after applying changes from server version {@code from} to {@code to};
+	 * the client-side registry is only considered up to date if it was already synchronized with version {@code from}
+	 */
+	private void updateSyncedVersion(long epoch, long from, long to, long localVersion) {
+		if (epoch == this.syncedEpoch && this.syncedVersion >= from && this.syncedLocalVersion == localVersion) {
+			this.syncedVersion = Math.max(this.syncedVersion, to);
+			this.syncedLocalVersion = this.snapshot.getVersion();
+		} else {
+			this.syncedVersion = -1L;
+		}
 	}
 
 	/**
 	 * Call this method when the server starts to ensure future changes are propagated to connected clients
 	 */
 	public void onServerStart() {
+		WeaponRegistryCodec.invalidateItemIdMapHash();
 		this.hasServerStarted = true;
 	}
 
+	/**
+	 * Call this method when the server stops; changes will no longer be propagated until the server starts again
+	 */
+	public void onServerStop() {
+		this.hasServerStarted = false;
+		RegistrySyncBuffer.clear();
+	}
+
 	/**
 	 * Returns true if the item is considered a sword and has not been forbidden as such
 	 */
 	public boolean isSword(Item item) {
-		return !isSwordForbidden(item) && (item instanceof ItemSword || allowed_swords.contains(item));
+		return (this.getClassification(item) & WeaponRegistrySnapshot.SWORD) != 0;
 	}
 
 	/**
@@ -102,17 +356,63 @@ public class WeaponRegistry
 	public boolean isSword(ItemStack stack) {
 		if (stack == null) {
 			return false;
+		} else if (stack.getItem() instanceof ICacheableWeapon) {
+			return (this.getStackClassification(stack, (ICacheableWeapon) stack.getItem()) & StackClassification.SWORD) != 0;
 		} else if (stack.getItem() instanceof IWeapon) {
-			return ((IWeapon) stack.getItem()).isSword(stack);
+			RegistryMetrics.CLASSIFY_IWEAPON.increment();
+			if (!RegistryMetrics.isEnabled()) {
+				return ((IWeapon) stack.getItem()).isSword(stack);
+			}
+			long start = System.nanoTime();
+			boolean result = ((IWeapon) stack.getItem()).isSword(stack);
+			RegistryMetrics.CLASSIFY_IWEAPON_NANOS.record(System.nanoTime() - start);
+			return result;
 		}
 		return isSword(stack.getItem());
 	}
 
+	/**
+	 * Returns the {@link StackClassification} flags for the stack, from its cache if its inputs are unchanged,
+	 * otherwise calling both of the weapon's methods and caching the results
+	 */
+	private int getStackClassification(ItemStack stack, ICacheableWeapon weapon) {
+		StackClassification cache = StackClassification.get(stack);
+		long version = this.snapshot.getVersion();
+		int flags = (cache == null ? -1 : cache.get(stack, version));
+		if (flags >= 0) {
+			RegistryMetrics.CLASSIFY_STACK_CACHED.increment();
+			return flags;
+		}
+		RegistryMetrics.CLASSIFY_IWEAPON.increment();
+		long start = (RegistryMetrics.isEnabled() ? System.nanoTime() : 0L);
+		flags = (weapon.isSword(stack) ? StackClassification.SWORD : 0) | (weapon.isWeapon(stack) ? StackClassification.WEAPON : 0);
+		if (start != 0L) {
+			RegistryMetrics.CLASSIFY_IWEAPON_NANOS.record(System.nanoTime() - start);
+		}
+		if (cache != null) {
+			cache.set(version, flags);
+		}
+		return flags;
+	}
+
+	/**
+	 * Returns the classification flags for the item from the current snapshot, timing the lookup if metrics are enabled
+	 */
+	private byte getClassification(Item item) {
+		if (!RegistryMetrics.isEnabled()) {
+			return this.snapshot.getClassification(item);
+		}
+		long start = System.nanoTime();
+		byte flags = this.snapshot.getClassification(item);
+		RegistryMetrics.CLASSIFY_ITEM_NANOS.record(System.nanoTime() - start);
+		return flags;
+	}
+
 	/**
 	 * Returns true if the item is forbidden either as a sword or a weapon (if it's not a weapon, it's not a sword).
 	 */
 	public boolean isSwordForbidden(Item item) {
-		return forbidden_swords.contains(item) || isWeaponForbidden(item);
+		return (this.getClassification(item) & WeaponRegistrySnapshot.SWORD_FORBIDDEN) != 0;
 	}
 
 	/**
@@ -120,7 +420,7 @@ public class WeaponRegistry
 	 * Any item that returns true for {@link #isSword(Item)} will also return true here.
 	 */
 	public boolean isWeapon(Item item) {
-		return !isWeaponForbidden(item) && (isSword(item) || item instanceof ItemAxe || allowed_weapons.contains(item));
+		return (this.getClassification(item) & WeaponRegistrySnapshot.WEAPON) != 0;
 	}
 
 	/**
@@ -131,8 +431,17 @@ public class WeaponRegistry
 	public boolean isWeapon(ItemStack stack) {
 		if (stack == null) {
 			return false;
+		} else if (stack.getItem() instanceof ICacheableWeapon) {
+			return (this.getStackClassification(stack, (ICacheableWeapon) stack.getItem()) & StackClassification.WEAPON) != 0;
 		} else if (stack.getItem() instanceof IWeapon) {
-			return ((IWeapon) stack.getItem()).isWeapon(stack);
+			RegistryMetrics.CLASSIFY_IWEAPON.increment();
+			if (!RegistryMetrics.isEnabled()) {
+				return ((IWeapon) stack.getItem()).isWeapon(stack);
+			}
+			long start = System.nanoTime();
+			boolean result = ((IWeapon) stack.getItem()).isWeapon(stack);
+			RegistryMetrics.CLASSIFY_IWEAPON_NANOS.record(System.nanoTime() - start);
+			return result;
 		}
 		return isWeapon(stack.getItem());
 	}
@@ -141,7 +450,23 @@ public class WeaponRegistry
 	 * Returns true if the item is forbidden as a weapon.
 	 */
 	public boolean isWeaponForbidden(Item item) {
-		return forbidden_weapons.contains(item);
+		return (this.getClassification(item) & WeaponRegistrySnapshot.WEAPON_FORBIDDEN) != 0;
+	}
+
+	/**
+	 * Returns the item's value for the attribute, or NaN if it has none; a single array access once
+	 * the attribute has first been read, see {@link WeaponAttribute}
+	 */
+	public float getAttribute(Item item, WeaponAttribute attribute) {
+		return this.snapshot.getAttribute(item, attribute);
+	}
+
+	/**
+	 * Returns the item's value for the attribute, or the default value if it has none
+	 */
+	public float getAttribute(Item item, WeaponAttribute attribute, float defaultValue) {
+		float value = this.snapshot.getAttribute(item, attribute);
+		return (Float.isNaN(value) ? defaultValue : value);
 	}
 
 	/**
@@ -149,27 +474,43 @@ public class WeaponRegistry
 	 * and the message contains an ItemStack, the stack will be registered appropriately.
 	 */
 	public void processMessage(FMLInterModComms.IMCMessage msg) {
-		if (msg.isItemStackMessage()) {
+		if (msg.key.equalsIgnoreCase(IMC_BATCH)) {
+			if (msg.isNBTMessage()) {
+				processBatchMessage(msg, msg.getNBTValue());
+			} else {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Batch messages must be NBTTagCompound messages, received %s", msg.getSender(), msg.getMessageType());
+			}
+		} else if (msg.key.equalsIgnoreCase(IMC_ATTRIBUTES)) {
+			if (msg.isNBTMessage()) {
+				processAttributeMessage(msg, msg.getNBTValue());
+			} else if (msg.isStringMessage()) {
+				new Batch("IMC:" + msg.getSender()).setAttributes(msg.getStringValue()).commit();
+			} else {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Attribute messages must be String or NBTTagCompound messages, received %s", msg.getSender(), msg.getMessageType());
+			}
+		} else if (msg.isItemStackMessage()) {
 			processMessage(msg, msg.getItemStackValue().getItem());
 		} else if (msg.isResourceLocationMessage()) {
 			Item item = Item.REGISTRY.getObject(msg.getResourceLocationValue());
 			if (item == null) {
-				SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [IMC] [%s] Item %s could not be found - the mod may not be installed or it may have been typed incorrectly", msg.getSender(), msg.getResourceLocationValue().toString()));
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Item %s could not be found - the mod may not be installed or it may have been typed incorrectly", msg.getSender(), msg.getResourceLocationValue());
 			} else {
 				processMessage(msg, item);
 			}
+		} else if (msg.isStringMessage() && ItemPattern.isPattern(msg.getStringValue())) {
+			processPatternMessage(msg, msg.getStringValue());
 		} else if (msg.isStringMessage()) {
 			ResourceLocation location = WeaponRegistry.getResourceLocation(msg.getStringValue());
 			Item item = (location == null ? null : Item.REGISTRY.getObject(location));
 			if (location == null) {
-				SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [IMC] [%s] Invalid ResourceLocation string %s in IMC message from mod %s", msg.getSender(), msg.getStringValue()));
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Invalid ResourceLocation string %s", msg.getSender(), msg.getStringValue());
 			} else if (item == null) {
-				SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [IMC] [%s] Item %s could not be found - the mod may not be installed or it may have been typed incorrectly", msg.getSender(), location.toString()));
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Item %s could not be found - the mod may not be installed or it may have been typed incorrectly", msg.getSender(), location);
 			} else {
 				processMessage(msg, item);
 			}
 		} else {
-			SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [IMC] [%s] Invalid IMC message type %s", msg.getSender(), msg.getMessageType()));
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Invalid IMC message type %s", msg.getSender(), msg.getMessageType());
 		}
 	}
 
@@ -189,10 +530,96 @@ public class WeaponRegistry
 		} else if (method.equals(IMC_FORBID_WEAPON)) {
 			removeWeapon(origin, item, override);
 		} else {
-			SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [IMC] [%s] Invalid IMC message method name %s", msg.getSender(), msg.key));
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Invalid IMC message method name %s", msg.getSender(), msg.key);
 		}
 	}
 
+	/**
+	 * Applies a pattern such as 'modid:*' sent as a string message to every matching item
+	 */
+	private void processPatternMessage(FMLInterModComms.IMCMessage msg, String pattern) {
+		String method = msg.key.toLowerCase();
+		boolean override = method.endsWith(IMC_OVERRIDE);
+		if (override) {
+			method = method.substring(0, method.length() - IMC_OVERRIDE.length());
+		}
+		WeaponRegistryHolder registry = getRegistryForMethod(method);
+		if (registry == null) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Invalid IMC message method name %s", msg.getSender(), msg.key);
+		} else {
+			new Batch("IMC:" + msg.getSender()).add(registry, pattern, override).commit();
+		}
+	}
+
+	private void processBatchMessage(FMLInterModComms.IMCMessage msg, NBTTagCompound tag) {
+		Batch batch = new Batch("IMC:" + msg.getSender());
+		for (String key : tag.getKeySet()) {
+			String method = key.toLowerCase();
+			boolean override = method.endsWith(IMC_OVERRIDE);
+			if (override) {
+				method = method.substring(0, method.length() - IMC_OVERRIDE.length());
+			}
+			WeaponRegistryHolder registry = getRegistryForMethod(method);
+			if (registry == null) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Invalid batch key %s", msg.getSender(), key);
+				continue;
+			}
+			NBTTagList list = tag.getTagList(key, Constants.NBT.TAG_STRING);
+			for (int i = 0; i < list.tagCount(); i++) {
+				batch.add(registry, list.getStringTagAt(i), override);
+			}
+		}
+		batch.commit();
+	}
+
+	private void processAttributeMessage(FMLInterModComms.IMCMessage msg, NBTTagCompound tag) {
+		Batch batch = new Batch("IMC:" + msg.getSender());
+		for (String name : tag.getKeySet()) {
+			if (tag.getTagId(name) != Constants.NBT.TAG_COMPOUND) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Attributes for %s must be an NBTTagCompound of numeric values", msg.getSender(), name);
+				continue;
+			}
+			NBTTagCompound values = tag.getCompoundTag(name);
+			for (String attribute : values.getKeySet()) {
+				NBTBase value = values.getTag(attribute);
+				if (value instanceof NBTPrimitive) {
+					batch.setAttribute(name, attribute, ((NBTPrimitive) value).getFloat());
+				} else {
+					SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [IMC] [%s] Attribute %s of %s must be numeric", msg.getSender(), attribute, name);
+				}
+			}
+		}
+		batch.commit();
+	}
+
+	/**
+	 * Returns the registry list for the lower-case IMC method name, without any {@link #IMC_OVERRIDE} suffix, or null if invalid
+	 */
+	@Nullable
+	private WeaponRegistryHolder getRegistryForMethod(String method) {
+		for (WeaponRegistryHolder registry : holders) {
+			if (registry.key.equals(method)) {
+				return registry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the registry list with the given {@link WeaponRegistryHolder#key}, ignoring case, or null if there is none
+	 */
+	@Nullable
+	public WeaponRegistryHolder getRegistryByKey(String key) {
+		return getRegistryForMethod(key.toLowerCase());
+	}
+
+	/**
+	 * Returns all registry lists, in the same order as their indices
+	 */
+	public List<WeaponRegistryHolder> getRegistries() {
+		return Collections.unmodifiableList(Arrays.asList(holders));
+	}
+
 	/**
 	 * @deprecated Support for external WeaponRegistry configs will be removed in a later version
 	 * Registers an array of named items either as swords or generic weapons
@@ -218,27 +645,12 @@ public class WeaponRegistry
 	}
 
 	private void processArray(String[] names, String origin, boolean isSword, boolean register) {
+		Batch batch = new Batch(origin);
+		WeaponRegistryHolder registry = (isSword ? (register ? allowed_swords : forbidden_swords) : (register ? allowed_weapons : forbidden_weapons));
 		for (String s : names) {
-			ResourceLocation location = WeaponRegistry.getResourceLocation(s);
-			if (location == null) {
-				SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [%s] Invalid ResourceLocation string %s", origin, s));
-			} else {
-				Item item = Item.REGISTRY.getObject(location);
-				if (item == null) {
-					SwordSkillsApi.LOGGER.warn(String.format("[WeaponRegistry] [%s] %s could not be found - the mod may not be installed or it may have been typed incorrectly", origin, s));
-				} else if (isSword) {
-					if (register) {
-						registerSword(origin, item, true);
-					} else {
-						removeSword(origin, item, true);
-					}
-				} else if (register) {
-					registerWeapon(origin, item, true);
-				} else {
-					removeWeapon(origin, item, true);
-				}
-			}
+			batch.add(registry, s, true);
 		}
+		batch.commit();
 	}
 
 	/**
@@ -301,6 +713,14 @@ public class WeaponRegistry
 		return registerItem(forbidden_weapons, origin, item, override);
 	}
 
+	/**
+	 * Returns a new {@link Batch} for registering many items at once, e.g. an entire mod's weapons
+	 * @param origin String containing information about origins of registration, e.g. "{mod_id}"
+	 */
+	public Batch batch(String origin) {
+		return new Batch(origin);
+	}
+
 	/**
 	 * Adds an item to the specified registry and removes it from all others
 	 * @param registry See class fields for available registries
@@ -309,23 +729,30 @@ public class WeaponRegistry
 	 * @param override Boolean, whether to perform the operation even if the Item is already registered to another list
 	 * @return true if item was successfully added
 	 */
-	private boolean registerItem(final WeaponRegistryHolder registry, String origin, Item item, boolean override) {
-		Optional<WeaponRegistryHolder> match = getRegisteredList(item, registry);
+	private synchronized boolean registerItem(final WeaponRegistryHolder registry, String origin, Item item, boolean override) {
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		boolean added = registerItem(edit, registry, origin, item, override);
+		this.commit(edit);
+		return added;
+	}
+
+	/**
+	 * Performs {@link #registerItem(WeaponRegistryHolder, String, Item, boolean)} on the builder without publishing the changes
+	 */
+	private boolean registerItem(final WeaponRegistrySnapshot.Builder edit, final WeaponRegistryHolder registry, String origin, Item item, boolean override) {
+		Optional<WeaponRegistryHolder> match = getRegisteredList(edit, item, registry);
 		if (match.isPresent()) {
 			if (!override) {
-				SwordSkillsApi.LOGGER.error(String.format("[WeaponRegistry] [%s] failed to add %s to the %s list - already on the %s list", origin, item.getRegistryName().toString(), registry.name, match.get().name));
+				SwordSkillsApi.LOGGER.error("[WeaponRegistry] [%s] failed to add %s to the %s list - already on the %s list", origin, item.getRegistryName(), registry.name, match.get().name);
 				return false;
 			}
-			unRegister(origin, item, registry);
+			unRegister(edit, origin, item, registry);
 		}
-		if (registry.items.add(item.getRegistryName())) {
-			SwordSkillsApi.LOGGER.info(String.format("[WeaponRegistry] [%s] Added %s to the %s list", origin, item.getRegistryName().toString(), registry.name));
-			if (this.hasServerStarted) {
-				PacketDispatcher.sendToAll(new SyncWeaponRegistryPacket(registry, item));
-			}
+		if (edit.add(registry.index, item.getRegistryName())) {
+			SwordSkillsApi.LOGGER.info("[WeaponRegistry] [%s] Added %s to the %s list", origin, item.getRegistryName(), registry.name);
 			return true;
 		}
-		SwordSkillsApi.LOGGER.info(String.format("[WeaponRegistry] [%s] %s was already on the %s list", origin, item.getRegistryName().toString(), registry.name));
+		SwordSkillsApi.LOGGER.info("[WeaponRegistry] [%s] %s was already on the %s list", origin, item.getRegistryName(), registry.name);
 		return false;
 	}
 
@@ -333,56 +760,85 @@ public class WeaponRegistry
 	 * Returns the first registry to which the Item has been registered, if any
 	 * @param registry Registry to exclude from the possible results, if any
 	 */
-	private Optional<WeaponRegistryHolder> getRegisteredList(final Item item, @Nullable final WeaponRegistryHolder registry) {
-		return Stream.of(allowed_swords, allowed_weapons, forbidden_swords, forbidden_weapons)
-				.filter(s -> s != registry && s.contains(item))
+	private Optional<WeaponRegistryHolder> getRegisteredList(final WeaponRegistrySnapshot.Builder edit, final Item item, @Nullable final WeaponRegistryHolder registry) {
+		return Stream.of(holders)
+				.filter(s -> s != registry && edit.contains(s.index, item.getRegistryName()))
 				.findFirst();
 	}
 
 	/**
 	 * Removes the item from all registries except for the one specified
 	 */
-	private void unRegister(final String origin, final Item item, @Nullable final WeaponRegistryHolder registry) {
-		Stream.of(allowed_swords, allowed_weapons, forbidden_swords, forbidden_weapons)
+	private void unRegister(final WeaponRegistrySnapshot.Builder edit, final String origin, final Item item, @Nullable final WeaponRegistryHolder registry) {
+		Stream.of(holders)
 		.forEach(s -> {
-			if (s != registry && s.items.remove(item.getRegistryName())) {
-				SwordSkillsApi.LOGGER.info(String.format("[WeaponRegistry] [%s] Removed %s from list of %s", origin, item.getRegistryName().toString(), s.name));
+			if (s != registry && edit.remove(s.index, item.getRegistryName())) {
+				SwordSkillsApi.LOGGER.info("[WeaponRegistry] [%s] Removed %s from list of %s", origin, item.getRegistryName(), s.name);
 			}
 		});
 	}
 
 	/**
-	 * Updates the client-side weapon registries when a sync packet is received
+	 * Updates the client-side weapon registries with all entries changed between the given server versions
+	 * @param entries Map of each changed item to its new registry list, or null if it is no longer on any list
 	 */
 	@SideOnly(Side.CLIENT)
-	public void syncWeaponRegistryEntry(String registry_name, ResourceLocation item) {
-		Stream.of(allowed_swords, allowed_weapons, forbidden_swords, forbidden_weapons).forEach(s -> s.items.remove(item));
-		WeaponRegistryHolder registry = this.getRegistryByName(registry_name);
-		registry.items.add(item);
+	public synchronized void syncWeaponRegistryEntries(Map<ResourceLocation, WeaponRegistryHolder> entries, long epoch, long from, long to) {
+		long localVersion = this.snapshot.getVersion();
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		entries.forEach((item, registry) -> this.syncWeaponRegistryEntry(edit, registry, item));
+		this.publish(edit);
+		this.updateSyncedVersion(epoch, from, to, localVersion);
+	}
+
+	private void syncWeaponRegistryEntry(WeaponRegistrySnapshot.Builder edit, @Nullable WeaponRegistryHolder registry, ResourceLocation item) {
+		Stream.of(holders).forEach(s -> {
+			if (s != registry) {
+				edit.remove(s.index, item);
+			}
+		});
+		if (registry != null) {
+			edit.add(registry.index, item);
+		}
 	}
 
-	private WeaponRegistryHolder getRegistryByName(String registry) {
-		switch (registry) {
-		case "Allowed Swords": return allowed_swords;
-		case "Allowed Weapons": return allowed_weapons;
-		case "Forbidden Swords": return forbidden_swords;
-		case "Forbidden Weapons": return forbidden_weapons;
-		default: throw new IllegalArgumentException("Invalid WeaponRegistryHolder name: " + registry);
+	/**
+	 * Returns the registry list with the given {@link WeaponRegistryHolder#index}, or null if the index is negative
+	 */
+	@Nullable
+	public WeaponRegistryHolder getRegistryByIndex(int index) {
+		if (index >= holders.length) {
+			throw new IllegalArgumentException("Invalid WeaponRegistryHolder index: " + index);
 		}
+		return (index < 0 ? null : holders[index]);
 	}
 
-	public void readFromBuffer(PacketBuffer buffer) {
-		this.allowed_swords.readFromBuffer(buffer);
-		this.allowed_weapons.readFromBuffer(buffer);
-		this.forbidden_swords.readFromBuffer(buffer);
-		this.forbidden_weapons.readFromBuffer(buffer);
+	public synchronized void readFromBuffer(PacketBuffer buffer) {
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		edit.clear();
+		edit.readFromBuffer(buffer);
+		this.publish(edit);
 	}
 
 	public void writeToBuffer(PacketBuffer buffer) {
-		this.allowed_swords.writeToBuffer(buffer);
-		this.allowed_weapons.writeToBuffer(buffer);
-		this.forbidden_swords.writeToBuffer(buffer);
-		this.forbidden_weapons.writeToBuffer(buffer);
+		this.snapshot.writeToBuffer(buffer);
+	}
+
+	/**
+	 * Replaces the contents of all lists with those written by {@link #encode(PacketBuffer, WeaponRegistryCodec.Format)}
+	 */
+	public synchronized void decode(PacketBuffer buffer) {
+		WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(this.snapshot);
+		edit.clear();
+		WeaponRegistryCodec.readSnapshot(buffer, edit);
+		this.publish(edit);
+	}
+
+	/**
+	 * Writes the contents of all lists to the buffer in the given format, preceded by the format itself
+	 */
+	public void encode(PacketBuffer buffer, WeaponRegistryCodec.Format format) {
+		this.snapshot.encode(buffer, format);
 	}
 
 	/**
@@ -396,7 +852,7 @@ public class WeaponRegistry
 		if (parts.length == 2) {
 			return parts;
 		}
-		SwordSkillsApi.LOGGER.error(String.format("[WeaponRegistry] String must be in the format 'modid:registered_item_name', received: %s", itemid));
+		SwordSkillsApi.LOGGER.error("[WeaponRegistry] String must be in the format 'modid:registered_item_name', received: %s", itemid);
 		return null;
 	}
 
@@ -408,41 +864,572 @@ public class WeaponRegistry
 		try {
 			return new ResourceLocation(item);
 		} catch (NullPointerException e) {
-			SwordSkillsApi.LOGGER.error(String.format("[WeaponRegistry] Invalid ResourceLocation string: %s", item));
+			SwordSkillsApi.LOGGER.error("[WeaponRegistry] Invalid ResourceLocation string: %s", item);
 		}
 		return null;
 	}
 
-	public static class WeaponRegistryHolder
+	/**
+	 * Returns true if the string is a class rule rather than a single item name, see {@link #CLASS_RULE_PREFIX}
+	 */
+	public static boolean isClassRule(String s) {
+		return s.startsWith(CLASS_RULE_PREFIX);
+	}
+
+	/**
+	 * Returns true if the string is an item pattern rather than a single item name, see {@link Batch#add(WeaponRegistryHolder, String, boolean)}
+	 */
+	public static boolean isPattern(String s) {
+		return ItemPattern.isPattern(s);
+	}
+
+	/**
+	 * 
+	 * Collects many registrations to be applied together by {@link #commit()}: all entries are
+	 * checked for conflicts in a single pass over one copy of the registry, the outcome is
+	 * logged as a single summary line, and the changes are published as one new snapshot,
+	 * and thus synchronized with clients as a single change.
+	 * 
+	 * Entries are applied in the order added, exactly as if registered one at a time; a Batch
+	 * is not thread-safe and may only be committed once.
+	 *
+	 */
+	public final class Batch
 	{
-		public final String name;
+		private final String origin;
 
-		private final Set<ResourceLocation> items = new HashSet<ResourceLocation>();
+		private final List<BatchEntry> entries = new ArrayList<BatchEntry>();
 
-		private WeaponRegistryHolder(String name) {
-			this.name = name;
+		/** Names and patterns that could not be parsed */
+		private final List<String> invalid = new ArrayList<String>();
+
+		private final List<AttributeEntry> attributes = new ArrayList<AttributeEntry>();
+
+		/** True if entries not added to this batch are to be removed from all lists, see {@link #replaceAll()} */
+		private boolean replace;
+
+		private boolean committed;
+
+		/** Outcome of the commit, see the corresponding getters */
+		private int added, moved, unchanged, removed, skipped, attributesChanged;
+
+		private Batch(String origin) {
+			this.origin = origin;
+		}
+
+		/** See {@link WeaponRegistry#registerSword(String, Item, boolean)} */
+		public Batch allowSword(Item item, boolean override) {
+			return this.add(allowed_swords, item.getRegistryName(), override);
+		}
+
+		/** See {@link WeaponRegistry#registerWeapon(String, Item, boolean)} */
+		public Batch allowWeapon(Item item, boolean override) {
+			return this.add(allowed_weapons, item.getRegistryName(), override);
+		}
+
+		/** See {@link WeaponRegistry#removeSword(String, Item, boolean)} */
+		public Batch forbidSword(Item item, boolean override) {
+			return this.add(forbidden_swords, item.getRegistryName(), override);
+		}
+
+		/** See {@link WeaponRegistry#removeWeapon(String, Item, boolean)} */
+		public Batch forbidWeapon(Item item, boolean override) {
+			return this.add(forbidden_weapons, item.getRegistryName(), override);
+		}
+
+		/** See {@link #add(WeaponRegistryHolder, String, boolean)} */
+		public Batch allowSword(String name, boolean override) {
+			return this.add(allowed_swords, name, override);
+		}
+
+		/** See {@link #add(WeaponRegistryHolder, String, boolean)} */
+		public Batch allowWeapon(String name, boolean override) {
+			return this.add(allowed_weapons, name, override);
+		}
+
+		/** See {@link #add(WeaponRegistryHolder, String, boolean)} */
+		public Batch forbidSword(String name, boolean override) {
+			return this.add(forbidden_swords, name, override);
+		}
+
+		/** See {@link #add(WeaponRegistryHolder, String, boolean)} */
+		public Batch forbidWeapon(String name, boolean override) {
+			return this.add(forbidden_weapons, name, override);
+		}
+
+		/**
+		 * Adds an entry by name; names of items that cannot be found are counted as missing when committed
+		 */
+		public Batch add(WeaponRegistryHolder registry, ResourceLocation location, boolean override) {
+			this.checkNotCommitted();
+			this.entries.add(new BatchEntry(registry, location, null, null, override));
+			return this;
+		}
+
+		/**
+		 * Adds an entry by item name, by {@link WeaponRegistry#CLASS_RULE_PREFIX class rule}, or by pattern, e.g. 'modid:*',
+		 * 'modid:*_sword', or '/modid:.+_(sword|katana)/'; patterns are matched against all items registered at the time
+		 * the batch is committed, and each matching item is then applied as a separate entry in place of the pattern.
+		 * Invalid names, rules and patterns are logged and counted as invalid when committed.
+		 */
+		public Batch add(WeaponRegistryHolder registry, String name, boolean override) {
+			this.checkNotCommitted();
+			if (WeaponRegistry.isClassRule(name)) {
+				String rule = name.substring(CLASS_RULE_PREFIX.length());
+				if (ClassRules.isValid(rule)) {
+					this.entries.add(new BatchEntry(registry, null, null, rule, override));
+				} else {
+					SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Class rule must be in the format '%sfully.qualified.ClassName' optionally followed by '@modid': %s", this.origin, CLASS_RULE_PREFIX, name);
+					this.invalid.add(name);
+				}
+			} else if (ItemPattern.isPattern(name)) {
+				try {
+					this.entries.add(new BatchEntry(registry, null, ItemPattern.compile(name), null, override));
+				} catch (IllegalArgumentException e) {
+					SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] %s", this.origin, e.getMessage());
+					this.invalid.add(name);
+				}
+			} else {
+				ResourceLocation location = WeaponRegistry.getResourceLocation(name);
+				if (location == null) {
+					this.invalid.add(name);
+				} else {
+					this.entries.add(new BatchEntry(registry, location, null, null, override));
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Sets the value of a {@link WeaponAttribute} for a single item; unlike list entries, attributes may not be set by pattern or class rule
+		 * @param name Item name, e.g. 'modid:registered_item_name'
+		 * @param attribute Attribute name, see {@link WeaponAttribute#get(String)}
+		 * @param value Any finite value
+		 */
+		public Batch setAttribute(String name, String attribute, float value) {
+			this.checkNotCommitted();
+			if (!Float.isFinite(value)) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Value of attribute %s for %s must be a finite number: %s", this.origin, attribute, name, value);
+				this.invalid.add(name + " " + attribute + "=" + value);
+			} else {
+				this.addAttribute(name, attribute, value);
+			}
+			return this;
+		}
+
+		/**
+		 * Removes the item's value for a {@link WeaponAttribute}, if any
+		 */
+		public Batch removeAttribute(String name, String attribute) {
+			this.checkNotCommitted();
+			this.addAttribute(name, attribute, Float.NaN);
+			return this;
+		}
+
+		/**
+		 * Sets one or more {@link WeaponAttribute} values for a single item from a string such as
+		 * "modid:registered_item_name reach=4.5 weight=2", as used by the config and string IMC messages
+		 */
+		public Batch setAttributes(String entry) {
+			this.checkNotCommitted();
+			String[] parts = entry.trim().split("\\s+");
+			if (parts.length < 2) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Attributes must be in the format 'modid:registered_item_name attribute=value ...': %s", this.origin, entry);
+				this.invalid.add(entry);
+				return this;
+			}
+			for (int i = 1; i < parts.length; i++) {
+				int eq = parts[i].indexOf('=');
+				float value = Float.NaN;
+				try {
+					value = (eq < 0 ? Float.NaN : Float.parseFloat(parts[i].substring(eq + 1)));
+				} catch (NumberFormatException e) {
+					// reported below
+				}
+				if (Float.isNaN(value)) {
+					SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Attribute for %s must be in the format 'attribute=value': %s", this.origin, parts[0], parts[i]);
+					this.invalid.add(parts[0] + " " + parts[i]);
+				} else {
+					this.setAttribute(parts[0], parts[i].substring(0, eq), value);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Adds an attribute entry, or a removal if the value is NaN, after validating the item and attribute names
+		 */
+		private void addAttribute(String name, String attribute, float value) {
+			if (WeaponRegistry.isClassRule(name) || ItemPattern.isPattern(name)) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Attributes may only be set for individual items, not patterns or class rules: %s", this.origin, name);
+				this.invalid.add(name);
+				return;
+			}
+			ResourceLocation location = WeaponRegistry.getResourceLocation(name);
+			if (location == null) {
+				this.invalid.add(name);
+				return;
+			}
+			try {
+				this.attributes.add(new AttributeEntry(location, WeaponAttribute.get(attribute.toLowerCase()), value));
+			} catch (IllegalArgumentException e) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] %s", this.origin, e.getMessage());
+				this.invalid.add(name + " " + attribute);
+			}
+		}
+
+		/**
+		 * Makes this batch replace the entire registry: when committed, every entry and class rule not added
+		 * to the batch is removed from its list, and every attribute value not set or removed by the batch is
+		 * removed, while entries and values already in place are left untouched
+		 */
+		public Batch replaceAll() {
+			this.checkNotCommitted();
+			this.replace = true;
+			return this;
+		}
+
+		/** Number of entries added to a list by the commit */
+		public int getAdded() {
+			return this.added;
+		}
+
+		/** Number of entries moved from one list to another by the commit */
+		public int getMoved() {
+			return this.moved;
+		}
+
+		/** Number of entries that were already on the requested list */
+		public int getUnchanged() {
+			return this.unchanged;
+		}
+
+		/** Number of entries removed by a {@link #replaceAll() replacing} commit */
+		public int getRemoved() {
+			return this.removed;
+		}
+
+		/** Number of attribute values set or removed by the commit */
+		public int getAttributesChanged() {
+			return this.attributesChanged;
+		}
+
+		/** Number of entries that were invalid, could not be found, or were rejected as already on another list; see the log for details */
+		public int getSkipped() {
+			return this.skipped;
+		}
+
+		private void checkNotCommitted() {
+			if (this.committed) {
+				throw new IllegalStateException("WeaponRegistry batch from " + this.origin + " has already been committed");
+			}
 		}
 
-		private boolean contains(Item item) {
-			return this.items.contains(item.getRegistryName());
+		/**
+		 * Number of entries and attribute values added so far
+		 */
+		public int size() {
+			return this.entries.size() + this.attributes.size();
 		}
 
-		private void readFromBuffer(PacketBuffer buffer) {
-			int n = buffer.readInt();
-			for (int i = 0; i < n; i++) {
-				String s = buffer.readString(256);
-				ResourceLocation location = WeaponRegistry.getResourceLocation(s);
-				if (location != null) {
-					this.items.add(location);
+		/**
+		 * Applies all entries to the registry as a single change
+		 * @return The number of entries that changed the registry
+		 */
+		public int commit() {
+			this.checkNotCommitted();
+			this.committed = true;
+			if (this.entries.isEmpty() && this.attributes.isEmpty() && this.invalid.isEmpty() && !this.replace) {
+				return 0;
+			}
+			List<String> missing = new ArrayList<String>();
+			List<String> rejected = new ArrayList<String>();
+			List<String> patterns = new ArrayList<String>();
+			List<BatchEntry> entries = this.expandPatterns(patterns, missing);
+			synchronized (WeaponRegistry.this) {
+				WeaponRegistrySnapshot base = WeaponRegistry.this.snapshot;
+				WeaponRegistrySnapshot.Builder edit = new WeaponRegistrySnapshot.Builder(base);
+				for (BatchEntry entry : entries) {
+					if (entry.classRule != null) {
+						String name = CLASS_RULE_PREFIX + entry.classRule;
+						if (!isClassPresent(ClassRules.getClassName(entry.classRule))) {
+							missing.add(name);
+							continue;
+						}
+						int current = -1;
+						for (int i = 0; i < holders.length && current < 0; i++) {
+							if (i != entry.registry.index && edit.containsClassRule(i, entry.classRule)) {
+								current = i;
+							}
+						}
+						if (current >= 0 && !entry.override) {
+							rejected.add(name + " (" + holders[current].name + ")");
+							continue;
+						}
+						for (int i = 0; current >= 0 && i < holders.length; i++) {
+							if (i != entry.registry.index) {
+								edit.removeClassRule(i, entry.classRule);
+							}
+						}
+						if (edit.addClassRule(entry.registry.index, entry.classRule)) {
+							if (current >= 0) {
+								this.moved++;
+							} else {
+								this.added++;
+							}
+						} else {
+							this.unchanged++;
+						}
+						continue;
+					}
+					if (Item.REGISTRY.getObject(entry.location) == null) {
+						missing.add(entry.location.toString());
+						continue;
+					}
+					int current = -1;
+					for (int i = 0; i < holders.length && current < 0; i++) {
+						if (i != entry.registry.index && edit.contains(i, entry.location)) {
+							current = i;
+						}
+					}
+					if (current >= 0 && !entry.override) {
+						rejected.add(entry.location + " (" + holders[current].name + ")");
+						continue;
+					}
+					if (current >= 0) {
+						for (int i = 0; i < holders.length; i++) {
+							if (i != entry.registry.index) {
+								edit.remove(i, entry.location);
+							}
+						}
+					}
+					if (edit.add(entry.registry.index, entry.location)) {
+						if (current >= 0) {
+							this.moved++;
+						} else {
+							this.added++;
+						}
+					} else {
+						this.unchanged++;
+					}
+				}
+				if (this.replace) {
+					this.removeAllExcept(base, edit, entries);
 				}
+				for (AttributeEntry entry : this.attributes) {
+					if (Item.REGISTRY.getObject(entry.location) == null) {
+						missing.add(entry.location.toString());
+					} else if (Float.isNaN(entry.value) ? edit.removeAttribute(entry.attribute.index, entry.location) : edit.setAttribute(entry.attribute.index, entry.location, entry.value)) {
+						this.attributesChanged++;
+					} else {
+						this.unchanged++;
+					}
+				}
+				WeaponRegistry.this.commit(edit);
 			}
+			this.skipped = this.invalid.size() + missing.size() + rejected.size();
+			String removed = (this.replace ? String.format(", %,d removed", this.removed) : "");
+			String attributes = (this.attributes.isEmpty() ? "" : String.format(", %,d attribute values changed", this.attributesChanged));
+			long exact = this.entries.stream().filter(e -> e.pattern == null).count();
+			String matched = (patterns.isEmpty() ? "" : String.format(" (%,d from patterns %s)", entries.size() - exact, summarize(patterns)));
+			if (missing.isEmpty() && rejected.isEmpty() && this.invalid.isEmpty()) {
+				SwordSkillsApi.LOGGER.info("[WeaponRegistry] [%s] Batch of %,d entries%s: %,d added, %,d moved from another list, %,d unchanged%s%s", this.origin, entries.size() + this.attributes.size(), matched, this.added, this.moved, this.unchanged, removed, attributes);
+			} else {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] [%s] Batch of %,d entries%s: %,d added, %,d moved from another list, %,d unchanged%s%s, %,d invalid %s, %,d not found %s, %,d rejected as already on another list %s",
+						this.origin, entries.size() + this.attributes.size(), matched, this.added, this.moved, this.unchanged, removed, attributes, this.invalid.size(), summarize(this.invalid), missing.size(), summarize(missing), rejected.size(), summarize(rejected));
+			}
+			return this.added + this.moved + this.attributesChanged;
 		}
 
-		private void writeToBuffer(PacketBuffer buffer) {
-			buffer.writeInt(this.items.size());
-			this.items.stream().forEach(s -> {
-				buffer.writeString(s.toString());
-			});
+		/**
+		 * Removes every item, class rule and attribute value of the base snapshot that is not named by any of the entries
+		 * or attribute entries, including those that were skipped, e.g. for items that are not currently installed
+		 */
+		private void removeAllExcept(WeaponRegistrySnapshot base, WeaponRegistrySnapshot.Builder edit, List<BatchEntry> entries) {
+			Set<ResourceLocation> locations = new HashSet<ResourceLocation>();
+			Set<String> classRules = new HashSet<String>();
+			for (BatchEntry entry : entries) {
+				if (entry.classRule != null) {
+					classRules.add(entry.classRule);
+				} else {
+					locations.add(entry.location);
+				}
+			}
+			for (int i = 0; i < holders.length; i++) {
+				for (ResourceLocation location : base.getItems(i)) {
+					if (!locations.contains(location) && edit.remove(i, location)) {
+						this.removed++;
+					}
+				}
+				for (String rule : base.getClassRules().getRules(i)) {
+					if (!classRules.contains(rule) && edit.removeClassRule(i, rule)) {
+						this.removed++;
+					}
+				}
+			}
+			List<Set<ResourceLocation>> attributes = new ArrayList<Set<ResourceLocation>>();
+			for (AttributeEntry entry : this.attributes) {
+				while (attributes.size() <= entry.attribute.index) {
+					attributes.add(new HashSet<ResourceLocation>());
+				}
+				attributes.get(entry.attribute.index).add(entry.location);
+			}
+			List<Map<ResourceLocation, Float>> values = base.getAttributes().getValues();
+			for (int i = 0; i < values.size(); i++) {
+				Set<ResourceLocation> kept = (i < attributes.size() ? attributes.get(i) : Collections.<ResourceLocation>emptySet());
+				for (ResourceLocation location : values.get(i).keySet()) {
+					if (!kept.contains(location) && edit.removeAttribute(i, location)) {
+						this.removed++;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns the entries with each pattern replaced by an entry for every registered item it matches, testing
+		 * each item name only once against all patterns combined; patterns matching nothing are added to missing
+		 * @param patterns Filled with each pattern and the number of items it matched
+		 */
+		private List<BatchEntry> expandPatterns(List<String> patterns, List<String> missing) {
+			List<ItemPattern> compiled = new ArrayList<ItemPattern>();
+			for (BatchEntry entry : this.entries) {
+				if (entry.pattern != null) {
+					compiled.add(entry.pattern);
+				}
+			}
+			if (compiled.isEmpty()) {
+				return this.entries;
+			}
+			List<List<ResourceLocation>> matches = new ArrayList<List<ResourceLocation>>(compiled.size());
+			for (int i = 0; i < compiled.size(); i++) {
+				matches.add(new ArrayList<ResourceLocation>());
+			}
+			ItemPattern.Matcher matcher = new ItemPattern.Matcher(compiled);
+			for (ResourceLocation location : Item.REGISTRY.getKeys()) {
+				matcher.match(location, i -> matches.get(i).add(location));
+			}
+			List<BatchEntry> expanded = new ArrayList<BatchEntry>(this.entries.size());
+			int n = 0;
+			for (BatchEntry entry : this.entries) {
+				if (entry.pattern == null) {
+					expanded.add(entry);
+					continue;
+				}
+				List<ResourceLocation> found = matches.get(n++);
+				if (found.isEmpty()) {
+					missing.add(entry.pattern.toString());
+				} else {
+					patterns.add(entry.pattern + " x" + found.size());
+				}
+				for (ResourceLocation location : found) {
+					expanded.add(new BatchEntry(entry.registry, location, null, null, entry.override));
+				}
+			}
+			return expanded;
+		}
+
+		/**
+		 * Returns true if the class exists, without loading it; rules for classes from mods that are not installed are not added
+		 */
+		private boolean isClassPresent(String name) {
+			try {
+				Class.forName(name, false, WeaponRegistry.class.getClassLoader());
+				return true;
+			} catch (ClassNotFoundException | LinkageError e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Lists at most the first few names, so that a single summary line remains readable
+		 */
+		private String summarize(List<String> names) {
+			int max = 10;
+			if (names.size() <= max) {
+				return names.toString();
+			}
+			return names.subList(0, max).toString().replace("]", ", ... " + (names.size() - max) + " more]");
+		}
+	}
+
+	private static final class BatchEntry
+	{
+		private final WeaponRegistryHolder registry;
+
+		/** Name of the item, or null if this entry is a pattern */
+		@Nullable
+		private final ResourceLocation location;
+
+		/** Pattern to be expanded into entries for each matching item when committed, or null */
+		@Nullable
+		private final ItemPattern pattern;
+
+		/** Class rule without the {@link WeaponRegistry#CLASS_RULE_PREFIX}, or null */
+		@Nullable
+		private final String classRule;
+
+		private final boolean override;
+
+		private BatchEntry(WeaponRegistryHolder registry, @Nullable ResourceLocation location, @Nullable ItemPattern pattern, @Nullable String classRule, boolean override) {
+			this.registry = registry;
+			this.location = location;
+			this.pattern = pattern;
+			this.classRule = classRule;
+			this.override = override;
+		}
+	}
+
+	private static final class AttributeEntry
+	{
+		private final ResourceLocation location;
+
+		private final WeaponAttribute attribute;
+
+		/** New value, or NaN to remove the item's value */
+		private final float value;
+
+		private AttributeEntry(ResourceLocation location, WeaponAttribute attribute, float value) {
+			this.location = location;
+			this.attribute = attribute;
+			this.value = value;
+		}
+	}
+
+	public static class WeaponRegistryHolder
+	{
+		public final String name;
+
+		/** FML Inter-Mod Communication key for adding an item to this list, also used to identify the list in commands and files */
+		public final String key;
+
+		/** Index of this list within each {@link WeaponRegistrySnapshot}, see {@link WeaponRegistry#getRegistryByIndex(int)} */
+		public final int index;
+
+		private WeaponRegistryHolder(String name, String key, int index) {
+			this.name = name;
+			this.key = key;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * 
+	 * A single change recorded in the journal: the list an item was on after the change with the given version
+	 *
+	 */
+	private static final class JournalEntry
+	{
+		private final long version;
+
+		private final ResourceLocation location;
+
+		/** Index of the item's list after the change, or -1 if it was no longer on any list */
+		private final int list;
+
+		private JournalEntry(long version, ResourceLocation location, int list) {
+			this.version = version;
+			this.location = location;
+			this.list = list;
 		}
 	}
 }
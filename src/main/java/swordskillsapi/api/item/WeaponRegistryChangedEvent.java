@@ -0,0 +1,133 @@
+package swordskillsapi.api.item;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.item.Item;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.eventhandler.Event;
+
+/**
+ *
+ * Posted on the {@link net.minecraftforge.common.MinecraftForge#EVENT_BUS} each time a new state of
+ * {@link WeaponRegistry#INSTANCE} is published: on the server when it is modified, e.g. by IMC, the
+ * config or a command, and on the client when the server's registry or changes to it are received.
+ * A batch of changes results in a single event.
+ *
+ * The event is posted on the thread making the change while the registry is locked; listeners may
+ * query the registry freely, but should not wait on other threads or modify the registry themselves.
+ *
+ */
+public class WeaponRegistryChangedEvent extends Event
+{
+	private final WeaponRegistry registry;
+
+	private final WeaponRegistrySnapshot previous;
+
+	private final WeaponRegistrySnapshot snapshot;
+
+	/** Locations whose entries changed, or null if the lists were replaced wholesale */
+	@Nullable
+	private final Set<ResourceLocation> candidates;
+
+	/** Lazily computed result of {@link #getChangedItems()} */
+	private Set<Item> changedItems;
+
+	WeaponRegistryChangedEvent(WeaponRegistry registry, WeaponRegistrySnapshot previous, WeaponRegistrySnapshot snapshot, @Nullable Set<ResourceLocation> candidates) {
+		this.registry = registry;
+		this.previous = previous;
+		this.snapshot = snapshot;
+		this.candidates = candidates;
+	}
+
+	public WeaponRegistry getRegistry() {
+		return this.registry;
+	}
+
+	/**
+	 * Returns the new registry version, see {@link WeaponRegistry#getVersion()}
+	 */
+	public long getVersion() {
+		return this.snapshot.getVersion();
+	}
+
+	/**
+	 * Returns the registry state as of this change
+	 */
+	public WeaponRegistrySnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Returns the registry state immediately before this change
+	 */
+	public WeaponRegistrySnapshot getPreviousSnapshot() {
+		return this.previous;
+	}
+
+	/**
+	 * True if any class rule changed, or the lists were replaced wholesale, such that
+	 * {@link #getChangedItems()} had to consider every registered item
+	 */
+	public boolean isFullUpdate() {
+		return this.candidates == null;
+	}
+
+	/**
+	 * True if any {@link WeaponAttribute} value changed; {@link #getChangedItems()} does not consider attributes
+	 */
+	public boolean hasAttributeChanges() {
+		return this.previous.getAttributes() != this.snapshot.getAttributes();
+	}
+
+	/**
+	 * Returns every registered item whose {@link WeaponRegistry#isSword(Item)} or {@link WeaponRegistry#isWeapon(Item)}
+	 * result has changed. Computed on first call only; for a {@link #isFullUpdate() full update} this requires checking
+	 * every item on either snapshot's lists or, if class rules changed, every registered item.
+	 */
+	public Set<Item> getChangedItems() {
+		if (this.changedItems == null) {
+			ImmutableSet.Builder<Item> items = ImmutableSet.builder();
+			if (this.candidates == null && this.previous.getClassRules() != this.snapshot.getClassRules()) {
+				for (Item item : Item.REGISTRY) {
+					if (this.hasChanged(item)) {
+						items.add(item);
+					}
+				}
+			} else {
+				for (ResourceLocation location : this.getCandidates()) {
+					Item item = Item.REGISTRY.getObject(location);
+					if (item != null && this.hasChanged(item)) {
+						items.add(item);
+					}
+				}
+			}
+			this.changedItems = items.build();
+		}
+		return this.changedItems;
+	}
+
+	/**
+	 * Returns the locations that may have changed when class rules did not: those changed by the edit, or else every entry on either snapshot's lists
+	 */
+	private Set<ResourceLocation> getCandidates() {
+		if (this.candidates != null) {
+			return this.candidates;
+		}
+		Set<ResourceLocation> all = new HashSet<ResourceLocation>();
+		for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+			all.addAll(this.previous.getItems(i));
+			all.addAll(this.snapshot.getItems(i));
+		}
+		return all;
+	}
+
+	private boolean hasChanged(Item item) {
+		int mask = WeaponRegistrySnapshot.SWORD | WeaponRegistrySnapshot.WEAPON;
+		return (this.previous.getClassification(item) & mask) != (this.snapshot.getClassification(item) & mask);
+	}
+}
@@ -0,0 +1,309 @@
+package swordskillsapi.api.item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.SwordSkillsApi;
+
+/**
+ *
+ * Encodes and decodes {@link WeaponRegistry} contents for network transfer.
+ *
+ * Every payload begins with a single {@link Format} byte so that it can be decoded
+ * without any further context; in all but the {@link Format#STRINGS} format, counts
+ * are written as varints and entries refer to a table of namespaces written once per
+ * payload, so that each entry costs little more than its path or numeric item id.
+ *
+ */
+public final class WeaponRegistryCodec
+{
+	/** Value written in place of a list index for items that are no longer on any list */
+	private static final int NO_LIST = 0xFF;
+
+	/** Cached result of {@link #computeItemIdMapHash()}, or 0 if it needs to be computed */
+	private static volatile long itemIdMapHash;
+
+	public enum Format {
+		/** Each entry as a full 'modid:name' string, as in earlier versions */
+		STRINGS,
+		/** Each entry as an index into the payload's namespace table followed by its path */
+		NAMESPACES,
+		/** Each entry as its numeric item id where possible, otherwise as for {@link #NAMESPACES}; requires both sides to share the same item id map */
+		ITEM_IDS;
+
+		public static Format fromId(int id) {
+			Format[] values = Format.values();
+			if (id < 0 || id >= values.length) {
+				throw new IllegalArgumentException("Invalid WeaponRegistry format id: " + id);
+			}
+			return values[id];
+		}
+	}
+
+	private WeaponRegistryCodec() {}
+
+	/**
+	 * Returns the best format supported by both sides given the format requested by the client
+	 * @param clientItemIdMapHash The client's {@link #computeItemIdMapHash()}
+	 */
+	public static Format negotiate(Format requested, long clientItemIdMapHash) {
+		if (requested == Format.ITEM_IDS && clientItemIdMapHash != getItemIdMapHash()) {
+			return Format.NAMESPACES;
+		}
+		return requested;
+	}
+
+	/**
+	 * Returns the hash of the current item id map, computing it only once; call
+	 * {@link #invalidateItemIdMapHash()} whenever item ids may have been remapped
+	 */
+	public static long getItemIdMapHash() {
+		long hash = itemIdMapHash;
+		if (hash == 0L) {
+			hash = computeItemIdMapHash();
+			itemIdMapHash = hash;
+		}
+		return hash;
+	}
+
+	public static void invalidateItemIdMapHash() {
+		itemIdMapHash = 0L;
+	}
+
+	/**
+	 * Computes an order-independent hash of every item's numeric id and registry name;
+	 * two sides with the same hash may safely exchange entries as numeric item ids.
+	 */
+	public static long computeItemIdMapHash() {
+		long hash = 1L;
+		for (Item item : Item.REGISTRY) {
+			hash += mix(((long) Item.getIdFromItem(item) << 32) ^ String.valueOf(item.getRegistryName()).hashCode());
+		}
+		return (hash == 0L ? 1L : hash);
+	}
+
+	/**
+	 * SplitMix64 finalizer, used so that order-independent sums of hashes do not cancel out similar entries
+	 */
+	static long mix(long h) {
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * Writes the contents of every list of the snapshot to the buffer, followed by its class rules and attributes
+	 */
+	static void writeSnapshot(PacketBuffer buffer, WeaponRegistrySnapshot snapshot, Format format) {
+		buffer.writeByte(format.ordinal());
+		if (format == Format.STRINGS) {
+			snapshot.writeToBuffer(buffer);
+		} else {
+			writeLists(buffer, snapshot, format);
+		}
+		snapshot.getClassRules().writeToBuffer(buffer);
+		snapshot.getAttributes().writeToBuffer(buffer);
+	}
+
+	private static void writeLists(PacketBuffer buffer, WeaponRegistrySnapshot snapshot, Format format) {
+		List<Set<ResourceLocation>> lists = new ArrayList<Set<ResourceLocation>>(WeaponRegistrySnapshot.LIST_COUNT);
+		for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+			lists.add(snapshot.getItems(i));
+		}
+		EntryWriter writer = new EntryWriter(buffer, format);
+		lists.forEach(writer::addNamespaces);
+		writer.writeNamespaces();
+		for (Set<ResourceLocation> list : lists) {
+			buffer.writeVarInt(list.size());
+			list.forEach(writer::write);
+		}
+	}
+
+	/**
+	 * Reads the contents of every list, the class rules and the attributes written by {@link #writeSnapshot} into the builder
+	 */
+	static void readSnapshot(PacketBuffer buffer, WeaponRegistrySnapshot.Builder edit) {
+		Format format = Format.fromId(buffer.readUnsignedByte());
+		if (format == Format.STRINGS) {
+			edit.readFromBuffer(buffer);
+		} else {
+			readLists(buffer, edit, format);
+		}
+		ClassRules.readFromBuffer(buffer, edit);
+		WeaponAttributes.readFromBuffer(buffer, edit);
+	}
+
+	private static void readLists(PacketBuffer buffer, WeaponRegistrySnapshot.Builder edit, Format format) {
+		EntryReader reader = new EntryReader(buffer, format);
+		for (int i = 0; i < WeaponRegistrySnapshot.LIST_COUNT; i++) {
+			int n = buffer.readVarInt();
+			for (int j = 0; j < n; j++) {
+				ResourceLocation location = reader.read();
+				if (location != null) {
+					edit.add(i, location);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes each changed item along with its new registry list to the buffer
+	 * @param changes Map of each changed item to its new registry list, or null if it is no longer on any list
+	 */
+	public static void writeChanges(PacketBuffer buffer, Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> changes, Format format) {
+		buffer.writeByte(format.ordinal());
+		EntryWriter writer = new EntryWriter(buffer, format);
+		writer.addNamespaces(changes.keySet());
+		writer.writeNamespaces();
+		buffer.writeVarInt(changes.size());
+		changes.forEach((location, registry) -> {
+			buffer.writeByte(registry == null ? NO_LIST : registry.index);
+			writer.write(location);
+		});
+	}
+
+	/**
+	 * Reads the changes written by {@link #writeChanges}, omitting any entries that could not be decoded
+	 * @param registry Registry whose lists are referred to by the returned map
+	 */
+	public static Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> readChanges(PacketBuffer buffer, WeaponRegistry registry) {
+		Format format = Format.fromId(buffer.readUnsignedByte());
+		EntryReader reader = new EntryReader(buffer, format);
+		int n = buffer.readVarInt();
+		Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> changes = new LinkedHashMap<ResourceLocation, WeaponRegistry.WeaponRegistryHolder>(n);
+		for (int i = 0; i < n; i++) {
+			int list = buffer.readUnsignedByte();
+			ResourceLocation location = reader.read();
+			if (location != null) {
+				changes.put(location, (list == NO_LIST ? null : registry.getRegistryByIndex(list)));
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Returns the numeric id of the item with the given registry name, or -1 if there is no such item;
+	 * air is never written by id, as it is what {@link Item#getItemById(int)} returns for unknown ids
+	 */
+	private static int getItemId(ResourceLocation location) {
+		Item item = Item.REGISTRY.getObject(location);
+		return (item == null || item == Items.AIR ? -1 : Item.getIdFromItem(item));
+	}
+
+	/**
+	 *
+	 * Writes entries in a given format, collecting the namespace table beforehand
+	 *
+	 */
+	private static final class EntryWriter
+	{
+		private final PacketBuffer buffer;
+
+		private final Format format;
+
+		private final Map<String, Integer> namespaces = new LinkedHashMap<String, Integer>();
+
+		private EntryWriter(PacketBuffer buffer, Format format) {
+			this.buffer = buffer;
+			this.format = format;
+		}
+
+		private void addNamespaces(Collection<ResourceLocation> locations) {
+			if (this.format != Format.STRINGS) {
+				for (ResourceLocation location : locations) {
+					if (this.format != Format.ITEM_IDS || getItemId(location) < 0) {
+						this.namespaces.putIfAbsent(location.getNamespace(), this.namespaces.size());
+					}
+				}
+			}
+		}
+
+		private void writeNamespaces() {
+			if (this.format != Format.STRINGS) {
+				this.buffer.writeVarInt(this.namespaces.size());
+				this.namespaces.keySet().forEach(this.buffer::writeString);
+			}
+		}
+
+		private void write(ResourceLocation location) {
+			if (this.format == Format.STRINGS) {
+				this.buffer.writeString(location.toString());
+				return;
+			} else if (this.format == Format.ITEM_IDS) {
+				int id = getItemId(location);
+				// Written as id + 1 so that 0 can indicate an entry without a numeric id
+				this.buffer.writeVarInt(id + 1);
+				if (id >= 0) {
+					return;
+				}
+			}
+			this.buffer.writeVarInt(this.namespaces.get(location.getNamespace()));
+			this.buffer.writeString(location.getPath());
+		}
+	}
+
+	/**
+	 *
+	 * Reads entries in a given format, reading the namespace table immediately
+	 *
+	 */
+	private static final class EntryReader
+	{
+		private final PacketBuffer buffer;
+
+		private final Format format;
+
+		private final String[] namespaces;
+
+		private EntryReader(PacketBuffer buffer, Format format) {
+			this.buffer = buffer;
+			this.format = format;
+			this.namespaces = new String[format == Format.STRINGS ? 0 : buffer.readVarInt()];
+			for (int i = 0; i < this.namespaces.length; i++) {
+				this.namespaces[i] = buffer.readString(256);
+			}
+		}
+
+		/**
+		 * Returns the next entry, or null if it could not be decoded
+		 */
+		@Nullable
+		private ResourceLocation read() {
+			if (this.format == Format.STRINGS) {
+				String s = this.buffer.readString(256);
+				ResourceLocation location = WeaponRegistry.getResourceLocation(s);
+				if (location == null) {
+					SwordSkillsApi.LOGGER.error("Invalid resource location string received for WeaponRegistry: %s", s);
+				}
+				return location;
+			} else if (this.format == Format.ITEM_IDS) {
+				int id = this.buffer.readVarInt() - 1;
+				if (id >= 0) {
+					Item item = Item.getItemById(id);
+					if (item == null || item == Items.AIR || item.getRegistryName() == null) {
+						SwordSkillsApi.LOGGER.error("Unknown item id received for WeaponRegistry: %s", id);
+						return null;
+					}
+					return item.getRegistryName();
+				}
+			}
+			int namespace = this.buffer.readVarInt();
+			String path = this.buffer.readString(256);
+			if (namespace < 0 || namespace >= this.namespaces.length) {
+				SwordSkillsApi.LOGGER.error("Invalid namespace index received for WeaponRegistry: %s", namespace);
+				return null;
+			}
+			return new ResourceLocation(this.namespaces[namespace], path);
+		}
+	}
+}
@@ -0,0 +1,540 @@
+package swordskillsapi.api.item;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.item.Item;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.metrics.RegistryMetrics;
+
+/**
+ *
+ * Immutable state of all {@link WeaponRegistry} lists, {@link ClassRules class rules} and
+ * {@link WeaponAttribute weapon attributes} along with the classification table computed from them.
+ *
+ * A new snapshot with a higher version is published each time the registry changes,
+ * so a reference obtained from {@link WeaponRegistry#getSnapshot()} always provides
+ * a consistent view of the registry and may be safely read from any thread.
+ *
+ */
+public final class WeaponRegistrySnapshot
+{
+	/** Number of registry lists, i.e. the length of {@link #items} */
+	static final int LIST_COUNT = 4;
+
+	static final int ALLOWED_SWORDS = 0;
+
+	static final int ALLOWED_WEAPONS = 1;
+
+	static final int FORBIDDEN_SWORDS = 2;
+
+	static final int FORBIDDEN_WEAPONS = 3;
+
+	/** Classification flag set on every computed table entry; entries without it must be (re)computed */
+	private static final byte CLASSIFIED = 1;
+
+	static final byte SWORD = 2;
+
+	static final byte WEAPON = 4;
+
+	static final byte SWORD_FORBIDDEN = 8;
+
+	static final byte WEAPON_FORBIDDEN = 16;
+
+	/** Minimum size of the classification table, large enough for all vanilla item ids */
+	private static final int MIN_TABLE_SIZE = 4096;
+
+	static final WeaponRegistrySnapshot EMPTY = new WeaponRegistrySnapshot(0L, emptyLists(), ClassRules.EMPTY, WeaponAttributes.EMPTY, new byte[0]);
+
+	private final long version;
+
+	private final Set<ResourceLocation>[] items;
+
+	/** Shared with following snapshots until the rules change, so that each Item class is only resolved once */
+	private final ClassRules classRules;
+
+	/** Shared with following snapshots until any value changes, so that each attribute's column is only resolved once */
+	private final WeaponAttributes attributes;
+
+	/**
+	 * Classification flags for each item indexed by {@link Item#getIdFromItem(Item)},
+	 * computed lazily from this snapshot's lists. Entries may be written concurrently
+	 * by several readers, but since they always compute the same value for the same
+	 * snapshot, a lost write merely means the entry will be computed again.
+	 */
+	private volatile byte[] classifications;
+
+	/** Cached result of {@link #getContentHash()}, or 0 if not yet computed */
+	private volatile long contentHash;
+
+	private WeaponRegistrySnapshot(long version, Set<ResourceLocation>[] items, ClassRules classRules, WeaponAttributes attributes, byte[] classifications) {
+		this.version = version;
+		this.items = items;
+		this.classRules = classRules;
+		this.attributes = attributes;
+		this.classifications = classifications;
+	}
+
+	/**
+	 * Returns the version of this snapshot; each change to the registry publishes a snapshot with a higher version
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Returns an immutable view of the items on the given registry list
+	 */
+	public Set<ResourceLocation> getItems(WeaponRegistry.WeaponRegistryHolder registry) {
+		return this.getItems(registry.index);
+	}
+
+	Set<ResourceLocation> getItems(int index) {
+		return this.items[index];
+	}
+
+	/**
+	 * Returns an immutable view of the class rules on the given registry list, see {@link WeaponRegistry#CLASS_RULE_PREFIX}
+	 */
+	public Set<String> getClassRules(WeaponRegistry.WeaponRegistryHolder registry) {
+		return this.classRules.getRules(registry.index);
+	}
+
+	ClassRules getClassRules() {
+		return this.classRules;
+	}
+
+	/**
+	 * Returns the item's value for the attribute, or NaN if it has none
+	 */
+	public float getAttribute(Item item, WeaponAttribute attribute) {
+		return this.attributes.get(item, attribute.index);
+	}
+
+	/**
+	 * Returns an immutable view of every value of the attribute by item name, including those of items that are not currently registered
+	 */
+	public Map<ResourceLocation, Float> getAttributeValues(WeaponAttribute attribute) {
+		return this.attributes.getValues(attribute.index);
+	}
+
+	WeaponAttributes getAttributes() {
+		return this.attributes;
+	}
+
+	/**
+	 * Returns true if the item is on the given registry list
+	 */
+	public boolean contains(WeaponRegistry.WeaponRegistryHolder registry, Item item) {
+		return this.items[registry.index].contains(item.getRegistryName());
+	}
+
+	/**
+	 * Returns the total number of entries on all registry lists
+	 */
+	public int size() {
+		int size = 0;
+		for (Set<ResourceLocation> list : this.items) {
+			size += list.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns a hash of the contents of all registry lists, class rules and attributes, independent of the version and of the order
+	 * in which entries were added; two snapshots with the same hash may be assumed to have the same contents.
+	 */
+	public long getContentHash() {
+		long hash = this.contentHash;
+		if (hash == 0L) {
+			hash = 1L;
+			for (int i = 0; i < LIST_COUNT; i++) {
+				for (ResourceLocation location : this.items[i]) {
+					long h = ((long) location.getNamespace().hashCode() << 32) ^ (location.getPath().hashCode() & 0xFFFFFFFFL);
+					hash += WeaponRegistryCodec.mix(h + i);
+				}
+			}
+			hash += this.classRules.getContentHash();
+			hash += WeaponRegistryCodec.mix(this.attributes.getContentHash());
+			hash = WeaponRegistryCodec.mix(hash ^ this.size());
+			this.contentHash = hash = (hash == 0L ? 1L : hash);
+		}
+		return hash;
+	}
+
+	/**
+	 * Writes all registry lists to the buffer in the format expected by {@link WeaponRegistry#readFromBuffer(PacketBuffer)}
+	 */
+	public void writeToBuffer(PacketBuffer buffer) {
+		for (Set<ResourceLocation> list : this.items) {
+			buffer.writeInt(list.size());
+			list.stream().forEach(s -> {
+				buffer.writeString(s.toString());
+			});
+		}
+	}
+
+	/**
+	 * Writes all registry lists to the buffer in the given format, preceded by the format itself;
+	 * see {@link WeaponRegistry#decode(PacketBuffer)}
+	 */
+	public void encode(PacketBuffer buffer, WeaponRegistryCodec.Format format) {
+		WeaponRegistryCodec.writeSnapshot(buffer, this, format);
+	}
+
+	/**
+	 * Returns the index of the list containing the location, or -1 if it is not on any list
+	 */
+	int getListIndex(ResourceLocation location) {
+		for (int i = 0; i < LIST_COUNT; i++) {
+			if (this.items[i].contains(location)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the classification flags for the item, computing and storing them in the table if needed
+	 */
+	byte getClassification(Item item) {
+		int id = Item.getIdFromItem(item);
+		if (id < 0) {
+			RegistryMetrics.CLASSIFY_LOOKUP.increment();
+			return computeClassification(item);
+		}
+		byte[] table = this.classifications;
+		if (id < table.length && table[id] != 0) {
+			RegistryMetrics.CLASSIFY_TABLE.increment();
+			return table[id];
+		}
+		RegistryMetrics.CLASSIFY_LOOKUP.increment();
+		byte flags = computeClassification(item);
+		if (id >= table.length) {
+			table = Arrays.copyOf(table, Math.max(MIN_TABLE_SIZE, Integer.highestOneBit(id) << 1));
+			this.classifications = table;
+		}
+		table[id] = flags;
+		return flags;
+	}
+
+	/**
+	 * Computes the classification flags for the item from the registry lists and class rules;
+	 * as for the lists, a forbidding rule always takes precedence over an allowing one
+	 */
+	private byte computeClassification(Item item) {
+		ResourceLocation location = item.getRegistryName();
+		int rules = this.classRules.getFlags(item);
+		boolean weaponForbidden = (rules & (1 << FORBIDDEN_WEAPONS)) != 0 || items[FORBIDDEN_WEAPONS].contains(location);
+		boolean swordForbidden = weaponForbidden || (rules & (1 << FORBIDDEN_SWORDS)) != 0 || items[FORBIDDEN_SWORDS].contains(location);
+		boolean sword = !swordForbidden && ((rules & (1 << ALLOWED_SWORDS)) != 0 || items[ALLOWED_SWORDS].contains(location));
+		boolean weapon = !weaponForbidden && (sword || (rules & (1 << ALLOWED_WEAPONS)) != 0 || items[ALLOWED_WEAPONS].contains(location));
+		byte flags = CLASSIFIED;
+		if (sword) {
+			flags |= SWORD;
+		}
+		if (weapon) {
+			flags |= WEAPON;
+		}
+		if (swordForbidden) {
+			flags |= SWORD_FORBIDDEN;
+		}
+		if (weaponForbidden) {
+			flags |= WEAPON_FORBIDDEN;
+		}
+		return flags;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<ResourceLocation>[] emptyLists() {
+		Set<ResourceLocation>[] items = new Set[LIST_COUNT];
+		Arrays.fill(items, ImmutableSet.of());
+		return items;
+	}
+
+	/**
+	 *
+	 * Collects changes to a snapshot's lists, copying each list only once it is first modified,
+	 * and builds the next snapshot from them. Not thread-safe; callers must ensure that only one
+	 * builder per registry is in use at a time.
+	 *
+	 */
+	static final class Builder
+	{
+		private final WeaponRegistrySnapshot base;
+
+		private final Set<ResourceLocation>[] items;
+
+		private final boolean[] modified = new boolean[LIST_COUNT];
+
+		/** Class rules for each list, copied only once first modified */
+		private final Set<String>[] classRules;
+
+		private boolean classRulesModified;
+
+		/** The class rules from which the next snapshot is built, or null if it must be created from {@link #classRules} */
+		private ClassRules builtRules;
+
+		/** Values of each attribute by item name, indexed by {@link WeaponAttribute#index}; copied only once first modified */
+		private final List<Map<ResourceLocation, Float>> attributes;
+
+		private boolean attributesModified;
+
+		/** The attributes from which the next snapshot is built, or null if they must be created from {@link #attributes} */
+		private WeaponAttributes builtAttributes;
+
+		/** Locations whose entries have changed and whose table entries must be recomputed */
+		private final Set<ResourceLocation> changed = new HashSet<ResourceLocation>();
+
+		/** True when the lists have been replaced wholesale, invalidating the entire table */
+		private boolean reset;
+
+		Builder(WeaponRegistrySnapshot base) {
+			this.base = base;
+			this.items = Arrays.copyOf(base.items, LIST_COUNT);
+			this.builtRules = base.classRules;
+			@SuppressWarnings("unchecked")
+			Set<String>[] classRules = new Set[LIST_COUNT];
+			for (int i = 0; i < LIST_COUNT; i++) {
+				classRules[i] = base.classRules.getRules(i);
+			}
+			this.classRules = classRules;
+			this.attributes = new ArrayList<Map<ResourceLocation, Float>>(base.attributes.getValues());
+			this.builtAttributes = base.attributes;
+		}
+
+		boolean contains(int index, ResourceLocation location) {
+			return this.items[index].contains(location);
+		}
+
+		boolean add(int index, ResourceLocation location) {
+			if (this.items[index].contains(location)) {
+				return false;
+			}
+			this.getModifiable(index).add(location);
+			this.changed.add(location);
+			return true;
+		}
+
+		boolean remove(int index, ResourceLocation location) {
+			if (!this.items[index].contains(location)) {
+				return false;
+			}
+			this.getModifiable(index).remove(location);
+			this.changed.add(location);
+			return true;
+		}
+
+		boolean containsClassRule(int index, String rule) {
+			return this.classRules[index].contains(rule);
+		}
+
+		boolean addClassRule(int index, String rule) {
+			if (this.classRules[index].contains(rule)) {
+				return false;
+			}
+			this.getModifiableRules(index).add(rule);
+			return true;
+		}
+
+		boolean removeClassRule(int index, String rule) {
+			if (!this.classRules[index].contains(rule)) {
+				return false;
+			}
+			this.getModifiableRules(index).remove(rule);
+			return true;
+		}
+
+		/**
+		 * Sets the value of the attribute with the given index for the item
+		 * @return False if the item already had that value
+		 */
+		boolean setAttribute(int index, ResourceLocation location, float value) {
+			Float current = (index < this.attributes.size() ? this.attributes.get(index).get(location) : null);
+			if (current != null && Float.compare(current, value) == 0) {
+				return false;
+			}
+			this.getModifiableAttribute(index).put(location, value);
+			return true;
+		}
+
+		boolean removeAttribute(int index, ResourceLocation location) {
+			if (index >= this.attributes.size() || !this.attributes.get(index).containsKey(location)) {
+				return false;
+			}
+			this.getModifiableAttribute(index).remove(location);
+			return true;
+		}
+
+		/**
+		 * Removes every entry and class rule from every list, along with every attribute value
+		 */
+		void clear() {
+			for (int i = 0; i < LIST_COUNT; i++) {
+				this.items[i] = new HashSet<ResourceLocation>();
+				this.modified[i] = true;
+				this.classRules[i] = new HashSet<String>();
+			}
+			this.classRulesModified = true;
+			this.builtRules = null;
+			this.attributes.clear();
+			this.attributesModified = true;
+			this.builtAttributes = null;
+			this.reset = true;
+		}
+
+		/**
+		 * Replaces the contents of every list, all class rules and all attribute values with those of the given snapshot
+		 */
+		void replaceWith(WeaponRegistrySnapshot other) {
+			for (int i = 0; i < LIST_COUNT; i++) {
+				this.items[i] = other.items[i];
+				this.modified[i] = false;
+				this.classRules[i] = other.classRules.getRules(i);
+			}
+			this.classRulesModified = (other.classRules != this.base.classRules);
+			this.builtRules = other.classRules;
+			this.attributes.clear();
+			this.attributes.addAll(other.attributes.getValues());
+			this.attributesModified = (other.attributes != this.base.attributes);
+			this.builtAttributes = other.attributes;
+			this.reset = true;
+		}
+
+		/**
+		 * Reads the contents of every list from the buffer, adding them to any existing entries
+		 */
+		void readFromBuffer(PacketBuffer buffer) {
+			for (int i = 0; i < LIST_COUNT; i++) {
+				int n = buffer.readInt();
+				for (int j = 0; j < n; j++) {
+					String s = buffer.readString(256);
+					ResourceLocation location = WeaponRegistry.getResourceLocation(s);
+					if (location != null) {
+						this.add(i, location);
+					}
+				}
+			}
+		}
+
+		boolean hasChanges() {
+			return this.reset || this.classRulesModified || this.attributesModified || !this.changed.isEmpty();
+		}
+
+		/**
+		 * True when any attribute value has changed; attributes are not journaled, so clients must receive the whole registry
+		 */
+		boolean hasAttributeChanges() {
+			return this.attributesModified;
+		}
+
+		/**
+		 * True when any class rule has changed, which may affect any number of items and thus cannot be journaled
+		 */
+		boolean hasClassRuleChanges() {
+			return this.classRulesModified;
+		}
+
+		/**
+		 * True when the changes can be recorded in the journal and sent to clients entry by entry; otherwise
+		 * clients that were in sync beforehand cannot be brought up to date without the whole registry
+		 */
+		boolean isJournaled() {
+			return !this.reset && !this.classRulesModified && !this.attributesModified;
+		}
+
+		/**
+		 * True when the lists have been replaced wholesale rather than changed entry by entry
+		 */
+		boolean isReset() {
+			return this.reset;
+		}
+
+		/**
+		 * Returns the locations whose entries have changed; not meaningful if {@link #isReset()}
+		 */
+		Set<ResourceLocation> getChanges() {
+			return this.changed;
+		}
+
+		WeaponRegistrySnapshot build() {
+			@SuppressWarnings("unchecked")
+			Set<ResourceLocation>[] lists = new Set[LIST_COUNT];
+			for (int i = 0; i < LIST_COUNT; i++) {
+				lists[i] = (this.modified[i] ? ImmutableSet.copyOf(this.items[i]) : this.items[i]);
+			}
+			ClassRules rules = this.builtRules;
+			if (rules == null) {
+				@SuppressWarnings("unchecked")
+				Set<String>[] classRules = new Set[LIST_COUNT];
+				for (int i = 0; i < LIST_COUNT; i++) {
+					classRules[i] = ImmutableSet.copyOf(this.classRules[i]);
+				}
+				rules = new ClassRules(classRules);
+			}
+			WeaponAttributes attributes = this.builtAttributes;
+			if (attributes == null) {
+				List<Map<ResourceLocation, Float>> values = new ArrayList<Map<ResourceLocation, Float>>(this.attributes.size());
+				for (Map<ResourceLocation, Float> map : this.attributes) {
+					values.add(ImmutableMap.copyOf(map));
+				}
+				attributes = new WeaponAttributes(values);
+			}
+			if (this.reset || rules != this.base.classRules) {
+				return new WeaponRegistrySnapshot(this.base.version + 1, lists, rules, attributes, new byte[0]);
+			}
+			byte[] table = this.base.classifications.clone();
+			WeaponRegistrySnapshot snapshot = new WeaponRegistrySnapshot(this.base.version + 1, lists, rules, attributes, table);
+			for (ResourceLocation location : this.changed) {
+				Item item = Item.REGISTRY.getObject(location);
+				int id = (item == null ? -1 : Item.getIdFromItem(item));
+				if (id >= 0 && id < table.length) {
+					table[id] = snapshot.computeClassification(item);
+				}
+			}
+			return snapshot;
+		}
+
+		private Set<String> getModifiableRules(int index) {
+			if (this.builtRules != null) {
+				for (int i = 0; i < LIST_COUNT; i++) {
+					this.classRules[i] = new HashSet<String>(this.classRules[i]);
+				}
+				this.builtRules = null;
+			}
+			this.classRulesModified = true;
+			return this.classRules[index];
+		}
+
+		private Map<ResourceLocation, Float> getModifiableAttribute(int index) {
+			if (this.builtAttributes != null) {
+				for (int i = 0; i < this.attributes.size(); i++) {
+					this.attributes.set(i, new HashMap<ResourceLocation, Float>(this.attributes.get(i)));
+				}
+				this.builtAttributes = null;
+			}
+			while (this.attributes.size() <= index) {
+				this.attributes.add(new HashMap<ResourceLocation, Float>());
+			}
+			this.attributesModified = true;
+			return this.attributes.get(index);
+		}
+
+		private Set<ResourceLocation> getModifiable(int index) {
+			if (!this.modified[index]) {
+				this.items[index] = new HashSet<ResourceLocation>(this.items[index]);
+				this.modified[index] = true;
+			}
+			return this.items[index];
+		}
+	}
+}
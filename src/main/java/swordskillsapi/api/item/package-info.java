@@ -1,4 +1,4 @@
-@API(owner = "swordskillsapi", provides = "SwordSkillsAPI-Item", apiVersion = "1.1.0")
+@API(owner = "swordskillsapi", provides = "SwordSkillsAPI-Item", apiVersion = "1.2.0")
 package swordskillsapi.api.item;
 
 import net.minecraftforge.fml.common.API;
@@ -0,0 +1,242 @@
+package swordskillsapi.client;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ServerData;
+import net.minecraft.network.PacketBuffer;
+import swordskillsapi.Config;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+
+/**
+ * 
+ * Persists the last WeaponRegistry received from each multiplayer server so that, when rejoining a
+ * server whose registry has not changed, the client only needs to announce the cached registry's
+ * {@link WeaponRegistrySnapshot#getContentHash() content hash} instead of receiving it again.
+ * 
+ * Each entry also records the server epoch and version it was synchronized with, as does the copy of the
+ * last registry received from each server kept in memory for the rest of the session, so that a client
+ * reconnecting to a server that is still running need only receive the changes made since it left.
+ * 
+ * Entries are stored by name rather than by numeric item id, since ids may differ between sessions.
+ * Only used on the client, but not side-only since it is referenced by messages registered on both sides.
+ *
+ */
+public class RegistryDiskCache
+{
+	/** 'SSAC' followed by the file format version */
+	private static final int MAGIC = 0x53534143;
+
+	private static final int FILE_VERSION = 4;
+
+	/** The last registry synchronized with each server during this session, keyed by server address */
+	private static final Map<String, SyncedRegistry> lastSynced = new HashMap<String, SyncedRegistry>();
+
+	/** Address of the server the client is currently connected to, or null if not applicable */
+	private static String server;
+
+	/** Cache file for the server the client is currently connected to, or null if not applicable */
+	private static File file;
+
+	/** Content hash of the registry in {@link #file}, or 0 if there is none */
+	private static long fileHash;
+
+	/** Server epoch and version with which the registry in {@link #file} was synchronized, or 0 and -1 if unknown */
+	private static long fileEpoch;
+
+	private static long fileVersion = -1L;
+
+	/**
+	 * Selects the cache file for the multiplayer server the client is currently connected to
+	 * and returns the content hash of the registry cached for it, or 0 if there is none.
+	 */
+	public static synchronized long getCachedHash() {
+		ServerData data = Minecraft.getMinecraft().getCurrentServerData();
+		server = (data == null || data.serverIP == null ? null : data.serverIP.toLowerCase());
+		file = getCacheFile(server);
+		fileHash = 0L;
+		fileEpoch = 0L;
+		fileVersion = -1L;
+		if (file != null && file.isFile()) {
+			try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+				if (in.readInt() == MAGIC && in.readInt() == FILE_VERSION) {
+					fileHash = in.readLong();
+					fileEpoch = in.readLong();
+					fileVersion = in.readLong();
+				}
+			} catch (IOException e) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Failed to read cached registry header from %s: %s", file, e.getMessage());
+				fileHash = 0L;
+			}
+		}
+		return fileHash;
+	}
+
+	/**
+	 * Returns the last registry synchronized with the current server while it was running with the given epoch,
+	 * from this session or else from the cache file, or null if there is none; the server must first have been
+	 * selected by {@link #getCachedHash()}
+	 */
+	@Nullable
+	public static synchronized SyncedRegistry getLastSynced(long epoch) {
+		SyncedRegistry synced = (server == null ? null : lastSynced.get(server));
+		if (synced != null && synced.epoch == epoch) {
+			return synced;
+		} else if (fileHash == 0L || fileEpoch != epoch || fileVersion < 0L) {
+			return null;
+		}
+		long version = fileVersion;
+		WeaponRegistry registry = load(fileHash);
+		return (registry == null ? null : new SyncedRegistry(registry.getSnapshot(), epoch, version));
+	}
+
+	/**
+	 * Loads the registry cached for the current server, returning null if it is missing or does not have the expected content hash
+	 */
+	@Nullable
+	public static synchronized WeaponRegistry load(long contentHash) {
+		if (file == null || fileHash != contentHash) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+			if (in.readInt() != MAGIC || in.readInt() != FILE_VERSION || in.readLong() != contentHash) {
+				return null;
+			}
+			in.readLong(); // epoch
+			in.readLong(); // version
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			WeaponRegistry registry = new WeaponRegistry();
+			registry.decode(new PacketBuffer(Unpooled.wrappedBuffer(bytes)));
+			if (registry.getSnapshot().getContentHash() == contentHash) {
+				return registry;
+			}
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Cached registry %s does not match its content hash", file);
+		} catch (IOException | RuntimeException e) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Failed to load cached registry from %s: %s", file, e.getMessage());
+		}
+		fileHash = 0L;
+		return null;
+	}
+
+	/**
+	 * Saves the snapshot as the last registry synchronized with the current server and, unless it is already
+	 * cached, as the cached registry for that server
+	 * @param epoch   Epoch of the server registry the snapshot was synchronized with
+	 * @param version Version of the server registry the snapshot was synchronized with, or -1 if it may differ from any version
+	 */
+	public static synchronized void save(WeaponRegistrySnapshot snapshot, long epoch, long version) {
+		if (server != null) {
+			if (version < 0L) {
+				lastSynced.remove(server);
+			} else {
+				lastSynced.put(server, new SyncedRegistry(snapshot, epoch, version));
+			}
+		}
+		long contentHash = snapshot.getContentHash();
+		if (file == null || (fileHash == contentHash && fileEpoch == epoch && fileVersion == version) || !Config.isRegistryCacheEnabled()) {
+			return;
+		}
+		ByteBuf payload = Unpooled.buffer();
+		try {
+			snapshot.encode(new PacketBuffer(payload), WeaponRegistryCodec.Format.NAMESPACES);
+			File parent = file.getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			File temp = new File(parent, file.getName() + ".tmp");
+			try (OutputStream stream = Files.newOutputStream(temp.toPath()); DataOutputStream out = new DataOutputStream(stream)) {
+				out.writeInt(MAGIC);
+				out.writeInt(FILE_VERSION);
+				out.writeLong(contentHash);
+				out.writeLong(epoch);
+				out.writeLong(version);
+				out.writeInt(payload.readableBytes());
+				payload.readBytes(out, payload.readableBytes());
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			fileHash = contentHash;
+			fileEpoch = epoch;
+			fileVersion = version;
+		} catch (IOException e) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Failed to save cached registry to %s: %s", file, e.getMessage());
+		} finally {
+			payload.release();
+		}
+	}
+
+	/**
+	 * Forgets the current server, e.g. upon disconnecting
+	 */
+	public static synchronized void reset() {
+		server = null;
+		file = null;
+		fileHash = 0L;
+		fileEpoch = 0L;
+		fileVersion = -1L;
+	}
+
+	/**
+	 * Returns the cache file for the given server address, or null if the registry should not be cached for it
+	 */
+	@Nullable
+	private static File getCacheFile(@Nullable String server) {
+		if (server == null || !Config.isRegistryCacheEnabled()) {
+			return null;
+		}
+		String name = Long.toHexString(server.hashCode() & 0xFFFFFFFFL);
+		return new File(Minecraft.getMinecraft().gameDir, SwordSkillsApi.ID + "/registry_cache/" + name + ".bin");
+	}
+
+	/**
+	 * 
+	 * A registry received from a server together with the server epoch and version it was synchronized with
+	 *
+	 */
+	public static class SyncedRegistry
+	{
+		private final WeaponRegistrySnapshot snapshot;
+
+		private final long epoch;
+
+		private final long version;
+
+		SyncedRegistry(WeaponRegistrySnapshot snapshot, long epoch, long version) {
+			this.snapshot = snapshot;
+			this.epoch = epoch;
+			this.version = version;
+		}
+
+		public WeaponRegistrySnapshot getSnapshot() {
+			return this.snapshot;
+		}
+
+		public long getEpoch() {
+			return this.epoch;
+		}
+
+		public long getVersion() {
+			return this.version;
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package swordskillsapi.command;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -14,14 +18,25 @@ import net.minecraft.item.Item;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
 import net.minecraft.util.text.TextComponentTranslation;
 import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.WeaponAttribute;
 import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistry.WeaponRegistryHolder;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+import swordskillsapi.metrics.RegistryMetrics;
 
 public class CommandWeaponRegistry extends CommandBase
 {
 	public static final ICommand INSTANCE = new CommandWeaponRegistry();
 
+	/** Maximum number of item names offered by tab completion */
+	private static final int MAX_COMPLETIONS = 100;
+
+	/** Number of entries shown per page by 'list' */
+	private static final int PAGE_SIZE = 10;
+
 	private CommandWeaponRegistry() {}
 
 	@Override
@@ -36,6 +51,13 @@ public class CommandWeaponRegistry extends CommandBase
 
 	/**
 	 * swordskillsapi <allow|forbid|is> <sword|weapon> modid:item_name
+	 * swordskillsapi <allow|forbid> <sword|weapon> <modid:*|modid:prefix*|modid:*suffix|/regex/>
+	 * swordskillsapi <allow|forbid> <sword|weapon> class:fully.qualified.ClassName[@modid]
+	 * swordskillsapi stats [reset]
+	 * swordskillsapi export [file_name]
+	 * swordskillsapi import <file_name> [replace]
+	 * swordskillsapi list <allow_sword|allow_weapon|forbid_sword|forbid_weapon> [page]
+	 * swordskillsapi attribute modid:item_name <attribute> [value|remove]
 	 */
 	@Override
 	public String getUsage(ICommandSender sender) {
@@ -44,9 +66,29 @@ public class CommandWeaponRegistry extends CommandBase
 
 	@Override
 	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+		if (args != null && args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+			executeStats(sender, args);
+			return;
+		} else if (args != null && args.length > 0 && args[0].equalsIgnoreCase("export")) {
+			executeExport(server, sender, args);
+			return;
+		} else if (args != null && args.length > 0 && args[0].equalsIgnoreCase("import")) {
+			executeImport(server, sender, args);
+			return;
+		} else if (args != null && args.length > 0 && args[0].equalsIgnoreCase("list")) {
+			executeList(sender, args);
+			return;
+		} else if (args != null && args.length > 0 && args[0].equalsIgnoreCase("attribute")) {
+			executeAttribute(sender, args);
+			return;
+		}
 		if (args == null || args.length != 3) {
 			throw new WrongUsageException(getUsage(sender));
 		}
+		if (WeaponRegistry.isPattern(args[2]) || WeaponRegistry.isClassRule(args[2])) {
+			executePattern(sender, args);
+			return;
+		}
 		ResourceLocation location = WeaponRegistry.getResourceLocation(args[2]);
 		if (location == null) {
 			throw new WrongUsageException(getUsage(sender));
@@ -89,6 +131,143 @@ public class CommandWeaponRegistry extends CommandBase
 		sender.sendMessage(new TextComponentTranslation(msg, args[2], new TextComponentTranslation(type)));
 	}
 
+	/**
+	 * Applies the allow or forbid action to every item matching the pattern or class rule as a single change
+	 */
+	private void executePattern(ICommandSender sender, String[] args) throws CommandException {
+		boolean isSword = isSword(args[1]);
+		WeaponRegistry.Batch batch = WeaponRegistry.INSTANCE.batch("Command");
+		String kind = (WeaponRegistry.isClassRule(args[2]) ? "class" : "pattern");
+		String msg = "commands.swordskillsapi.";
+		if (args[0].equalsIgnoreCase("allow")) {
+			msg += "allow." + kind;
+			batch = (isSword ? batch.allowSword(args[2], true) : batch.allowWeapon(args[2], true));
+		} else if (args[0].equalsIgnoreCase("forbid")) {
+			msg += "forbid." + kind;
+			batch = (isSword ? batch.forbidSword(args[2], true) : batch.forbidWeapon(args[2], true));
+		} else if (args[0].equalsIgnoreCase("is")) {
+			throw new WrongUsageException("commands.swordskillsapi.pattern.is");
+		} else {
+			throw new WrongUsageException("commands.swordskillsapi.action.unknown");
+		}
+		if (batch.size() == 0) {
+			throw new WrongUsageException("commands.swordskillsapi." + kind + ".invalid", args[2]);
+		}
+		int changed = batch.commit();
+		String type = "commands.swordskillsapi." + (isSword ? "sword" : "weapon");
+		sender.sendMessage(new TextComponentTranslation(msg, args[2], changed, new TextComponentTranslation(type)));
+	}
+
+	private void executeStats(ICommandSender sender, String[] args) throws CommandException {
+		if (args.length > 2 || (args.length == 2 && !args[1].equalsIgnoreCase("reset"))) {
+			throw new WrongUsageException(getUsage(sender));
+		} else if (!RegistryMetrics.isEnabled()) {
+			sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.stats.disabled"));
+		} else if (args.length == 2) {
+			RegistryMetrics.reset();
+			sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.stats.reset"));
+		} else {
+			RegistryMetrics.report().forEach(line -> sender.sendMessage(new TextComponentString(line)));
+		}
+	}
+
+	private void executeExport(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+		if (args.length > 2) {
+			throw new WrongUsageException(getUsage(sender));
+		}
+		File file = RegistryFile.resolve(server, (args.length == 2 ? args[1] : RegistryFile.DEFAULT_NAME));
+		WeaponRegistry registry = WeaponRegistry.INSTANCE;
+		try {
+			int count = RegistryFile.write(file, registry, registry.getSnapshot());
+			sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.export.success", count, file.getName()));
+		} catch (IOException e) {
+			SwordSkillsApi.LOGGER.error("Failed to export WeaponRegistry to %s: %s", file, e.getMessage());
+			throw new CommandException("commands.swordskillsapi.file.error", file.getName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Applies every entry in the file as a single batch, so that clients are synchronized only once
+	 * and nothing at all is changed if the file cannot be read
+	 */
+	private void executeImport(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+		if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equalsIgnoreCase("replace"))) {
+			throw new WrongUsageException(getUsage(sender));
+		}
+		File file = RegistryFile.resolve(server, args[1]);
+		if (!file.isFile()) {
+			throw new CommandException("commands.swordskillsapi.file.missing", file.getName());
+		}
+		WeaponRegistry registry = WeaponRegistry.INSTANCE;
+		WeaponRegistry.Batch batch = registry.batch("Command:import");
+		if (args.length == 3) {
+			batch.replaceAll();
+		}
+		try {
+			RegistryFile.read(file, registry, batch);
+		} catch (IOException e) {
+			SwordSkillsApi.LOGGER.error("Failed to import WeaponRegistry from %s: %s", file, e.getMessage());
+			throw new CommandException("commands.swordskillsapi.file.error", file.getName(), e.getMessage());
+		}
+		batch.commit();
+		sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.import.success", file.getName(),
+				batch.getAdded(), batch.getMoved(), batch.getRemoved(), batch.getUnchanged(), batch.getAttributesChanged(), batch.getSkipped()));
+	}
+
+	private void executeList(ICommandSender sender, String[] args) throws CommandException {
+		if (args.length < 2 || args.length > 3) {
+			throw new WrongUsageException(getUsage(sender));
+		}
+		WeaponRegistryHolder list = WeaponRegistry.INSTANCE.getRegistryByKey(args[1]);
+		if (list == null) {
+			throw new WrongUsageException("commands.swordskillsapi.list.unknown", args[1]);
+		}
+		WeaponRegistrySnapshot snapshot = WeaponRegistry.INSTANCE.getSnapshot();
+		List<String> entries = RegistryFile.getEntries(snapshot, list);
+		int pages = Math.max(1, (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+		int page = (args.length == 3 ? CommandBase.parseInt(args[2], 1, pages) : 1);
+		sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.list.header", list.key, entries.size(), page, pages));
+		int end = Math.min(entries.size(), page * PAGE_SIZE);
+		for (int i = (page - 1) * PAGE_SIZE; i < end; i++) {
+			sender.sendMessage(new TextComponentString(entries.get(i)));
+		}
+	}
+
+	/**
+	 * Shows, sets or removes a single item's value for a weapon attribute
+	 */
+	private void executeAttribute(ICommandSender sender, String[] args) throws CommandException {
+		if (args.length < 3 || args.length > 4) {
+			throw new WrongUsageException(getUsage(sender));
+		}
+		ResourceLocation location = WeaponRegistry.getResourceLocation(args[1]);
+		Item item = (location == null ? null : Item.REGISTRY.getObject(location));
+		if (item == null) {
+			throw new WrongUsageException("commands.swordskillsapi.item.unknown", args[1]);
+		}
+		String name = args[2].toLowerCase();
+		if (!WeaponAttribute.isValidName(name)) {
+			throw new WrongUsageException("commands.swordskillsapi.attribute.invalid", args[2]);
+		}
+		WeaponAttribute attribute = WeaponAttribute.get(name);
+		if (args.length == 3) {
+			float value = WeaponRegistry.INSTANCE.getAttribute(item, attribute);
+			if (Float.isNaN(value)) {
+				sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.attribute.none", args[1], name));
+			} else {
+				sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.attribute.get", args[1], name, value));
+			}
+		} else if (args[3].equalsIgnoreCase("remove")) {
+			int changed = WeaponRegistry.INSTANCE.batch("Command").removeAttribute(args[1], name).commit();
+			sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.attribute." + (changed > 0 ? "removed" : "none"), args[1], name));
+		} else {
+			float value = (float) CommandBase.parseDouble(args[3], -Float.MAX_VALUE, Float.MAX_VALUE);
+			WeaponRegistry.Batch batch = WeaponRegistry.INSTANCE.batch("Command").setAttribute(args[1], name, value);
+			batch.commit();
+			sender.sendMessage(new TextComponentTranslation("commands.swordskillsapi.attribute." + (batch.getSkipped() > 0 ? "failed" : "set"), args[1], name, value));
+		}
+	}
+
 	private boolean isSword(String arg) throws CommandException {
 		if (arg.equalsIgnoreCase("sword")) {
 			return true;
@@ -101,10 +280,49 @@ public class CommandWeaponRegistry extends CommandBase
 	@Override
 	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos pos) {
 		switch (args.length) {
-		case 1: return CommandBase.getListOfStringsMatchingLastWord(args, "allow", "forbid", "is");
-		case 2: return CommandBase.getListOfStringsMatchingLastWord(args, "sword", "weapon");
-		case 3: return CommandBase.getListOfStringsMatchingLastWord(args, Item.REGISTRY.getKeys());
+		case 1: return CommandBase.getListOfStringsMatchingLastWord(args, "allow", "forbid", "is", "stats", "export", "import", "list", "attribute");
+		case 2:
+			if (args[0].equalsIgnoreCase("stats")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, "reset");
+			} else if (args[0].equalsIgnoreCase("export") || args[0].equalsIgnoreCase("import")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, RegistryFile.list(server));
+			} else if (args[0].equalsIgnoreCase("list")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, WeaponRegistry.INSTANCE.getRegistries().stream().map(list -> list.key).collect(Collectors.toList()));
+			} else if (args[0].equalsIgnoreCase("attribute")) {
+				return ItemNameIndex.get().complete(args[1], item -> true, MAX_COMPLETIONS);
+			}
+			return CommandBase.getListOfStringsMatchingLastWord(args, "sword", "weapon");
+		case 3:
+			if (args[0].equalsIgnoreCase("attribute")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, WeaponAttribute.getNames());
+			} else if (args[0].equalsIgnoreCase("import")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, "replace");
+			} else if (args[0].equalsIgnoreCase("stats") || args[0].equalsIgnoreCase("export") || args[0].equalsIgnoreCase("list") || WeaponRegistry.isClassRule(args[2])) {
+				break;
+			}
+			return ItemNameIndex.get().complete(args[2], getCompletionFilter(args[0], args[1]), MAX_COMPLETIONS);
+		case 4:
+			if (args[0].equalsIgnoreCase("attribute")) {
+				return CommandBase.getListOfStringsMatchingLastWord(args, "remove");
+			}
+			break;
 		}
 		return Collections.<String>emptyList();
 	}
+
+	/**
+	 * Returns a filter offering only items the action would change, e.g. only items currently considered swords for 'forbid sword'
+	 */
+	private Predicate<Item> getCompletionFilter(String action, String type) {
+		WeaponRegistry registry = WeaponRegistry.INSTANCE;
+		boolean isSword = type.equalsIgnoreCase("sword");
+		if (!isSword && !type.equalsIgnoreCase("weapon")) {
+			return item -> true;
+		} else if (action.equalsIgnoreCase("allow")) {
+			return (isSword ? item -> !registry.isSword(item) : item -> !registry.isWeapon(item));
+		} else if (action.equalsIgnoreCase("forbid")) {
+			return (isSword ? registry::isSword : registry::isWeapon);
+		}
+		return item -> true;
+	}
 }
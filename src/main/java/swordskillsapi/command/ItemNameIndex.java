@@ -0,0 +1,111 @@
+package swordskillsapi.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import net.minecraft.item.Item;
+import net.minecraft.util.ResourceLocation;
+
+/**
+ *
+ * Sorted index of all registered item names for tab completion, built once on first use since
+ * the item registry no longer changes once a world can be joined. Completions are found by binary
+ * search for the typed prefix rather than by testing every name.
+ *
+ * Until a namespace has been typed, mod ids are offered first, followed by vanilla items matched by
+ * path alone as for vanilla commands; thereafter, items within the typed namespace.
+ *
+ */
+final class ItemNameIndex
+{
+	private static ItemNameIndex instance;
+
+	/** All item names, sorted */
+	private final String[] names;
+
+	/** Item with each of the names */
+	private final Item[] items;
+
+	/** Distinct namespaces, sorted, each followed by ':' */
+	private final String[] namespaces;
+
+	/** Paths of vanilla items, sorted */
+	private final String[] vanillaPaths;
+
+	/** Vanilla item with each of the paths */
+	private final Item[] vanillaItems;
+
+	private ItemNameIndex() {
+		List<Item> all = new ArrayList<Item>();
+		for (Item item : Item.REGISTRY) {
+			if (item.getRegistryName() != null) {
+				all.add(item);
+			}
+		}
+		all.sort(Comparator.comparing(item -> item.getRegistryName().toString()));
+		this.items = all.toArray(new Item[all.size()]);
+		this.names = new String[this.items.length];
+		TreeSet<String> namespaces = new TreeSet<String>();
+		List<Item> vanilla = new ArrayList<Item>();
+		for (int i = 0; i < this.items.length; i++) {
+			ResourceLocation location = this.items[i].getRegistryName();
+			this.names[i] = location.toString();
+			namespaces.add(location.getNamespace() + ":");
+			if (location.getNamespace().equals("minecraft")) {
+				vanilla.add(this.items[i]);
+			}
+		}
+		this.namespaces = namespaces.toArray(new String[namespaces.size()]);
+		vanilla.sort(Comparator.comparing(item -> item.getRegistryName().getPath()));
+		this.vanillaItems = vanilla.toArray(new Item[vanilla.size()]);
+		this.vanillaPaths = new String[this.vanillaItems.length];
+		for (int i = 0; i < this.vanillaItems.length; i++) {
+			this.vanillaPaths[i] = this.vanillaItems[i].getRegistryName().getPath();
+		}
+	}
+
+	static synchronized ItemNameIndex get() {
+		if (instance == null) {
+			instance = new ItemNameIndex();
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns at most {@code max} completions of the typed text
+	 * @param filter Items to include; namespaces are always offered
+	 */
+	List<String> complete(String typed, Predicate<Item> filter, int max) {
+		String prefix = typed.toLowerCase();
+		List<String> results = new ArrayList<String>();
+		if (prefix.indexOf(':') < 0) {
+			for (int i = lowerBound(this.namespaces, prefix); i < this.namespaces.length && results.size() < max && this.namespaces[i].startsWith(prefix); i++) {
+				results.add(this.namespaces[i]);
+			}
+			for (int i = lowerBound(this.vanillaPaths, prefix); i < this.vanillaPaths.length && results.size() < max && this.vanillaPaths[i].startsWith(prefix); i++) {
+				if (filter.test(this.vanillaItems[i])) {
+					results.add(this.vanillaItems[i].getRegistryName().toString());
+				}
+			}
+			return results;
+		}
+		for (int i = lowerBound(this.names, prefix); i < this.names.length && results.size() < max && this.names[i].startsWith(prefix); i++) {
+			if (filter.test(this.items[i])) {
+				results.add(this.names[i]);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the index of the first element not less than the key
+	 */
+	private static int lowerBound(String[] sorted, String key) {
+		int i = Arrays.binarySearch(sorted, key);
+		return (i < 0 ? -(i + 1) : i);
+	}
+}
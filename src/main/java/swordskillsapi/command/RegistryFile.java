@@ -0,0 +1,192 @@
+package swordskillsapi.command;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import net.minecraft.command.CommandException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.WeaponAttribute;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistry.WeaponRegistryHolder;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+
+/**
+ *
+ * Reads and writes WeaponRegistry files in the server's 'swordskillsapi/exports' directory, one entry per line,
+ * each list preceded by its key in square brackets, e.g. '[allow_sword]'; blank lines and lines starting
+ * with '#' are ignored, and entries may be anything accepted by {@link WeaponRegistry.Batch#add(WeaponRegistryHolder, String, boolean)}.
+ *
+ * Attribute values follow the lists in an '[attributes]' section, one item per line in the format accepted
+ * by {@link WeaponRegistry.Batch#setAttributes(String)}, e.g. 'modid:item_name reach=4.5 weight=2', so that
+ * importing an exported file with 'replace' restores the registry exactly as it was.
+ *
+ * Files are read and written a line at a time, so that even very large registries need never be held as a whole.
+ *
+ */
+final class RegistryFile
+{
+	static final String DEFAULT_NAME = "weapon_registry.txt";
+
+	/** Directory holding registry files, apart from any other files the mod keeps in its own directory */
+	static final String DIRECTORY = SwordSkillsApi.ID + "/exports";
+
+	static final String EXTENSION = ".txt";
+
+	/** Key of the section holding attribute values, which must not be the key of any list */
+	static final String ATTRIBUTES = "attributes";
+
+	/** Plain text file names only, so that commands cannot read or write outside of the directory or any other kind of file */
+	private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9_.-]*\\.txt");
+
+	private RegistryFile() {}
+
+	/**
+	 * Returns the file with the given name in the server's {@link #DIRECTORY}, adding the {@link #EXTENSION} to names without one
+	 */
+	static File resolve(MinecraftServer server, String name) throws CommandException {
+		String fileName = (name.indexOf('.') < 0 ? name + EXTENSION : name);
+		if (!NAME.matcher(fileName).matches()) {
+			throw new CommandException("commands.swordskillsapi.file.invalid", name);
+		}
+		return new File(server.getFile(DIRECTORY), fileName);
+	}
+
+	/**
+	 * Returns the names of all registry files in the server's {@link #DIRECTORY}
+	 */
+	static List<String> list(MinecraftServer server) {
+		String[] names = server.getFile(DIRECTORY).list();
+		if (names == null) {
+			return Collections.<String>emptyList();
+		}
+		List<String> files = new ArrayList<String>();
+		for (String name : names) {
+			if (NAME.matcher(name).matches()) {
+				files.add(name);
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Returns all entries on the list, sorted, with class rules last
+	 */
+	static List<String> getEntries(WeaponRegistrySnapshot snapshot, WeaponRegistryHolder registry) {
+		List<String> entries = new ArrayList<String>(snapshot.getItems(registry).size());
+		for (ResourceLocation location : snapshot.getItems(registry)) {
+			entries.add(location.toString());
+		}
+		Collections.sort(entries);
+		List<String> rules = new ArrayList<String>(snapshot.getClassRules(registry));
+		Collections.sort(rules);
+		for (String rule : rules) {
+			entries.add(WeaponRegistry.CLASS_RULE_PREFIX + rule);
+		}
+		return entries;
+	}
+
+	/**
+	 * Returns a line for each item with any attribute values, sorted, listing its values in order of attribute name
+	 */
+	static List<String> getAttributeEntries(WeaponRegistrySnapshot snapshot) {
+		Map<String, StringBuilder> lines = new TreeMap<String, StringBuilder>();
+		List<String> names = WeaponAttribute.getNames();
+		Collections.sort(names);
+		for (String name : names) {
+			snapshot.getAttributeValues(WeaponAttribute.get(name)).forEach((location, value) -> {
+				lines.computeIfAbsent(location.toString(), StringBuilder::new).append(' ').append(name).append('=').append(value);
+			});
+		}
+		List<String> entries = new ArrayList<String>(lines.size());
+		lines.values().forEach(line -> entries.add(line.toString()));
+		return entries;
+	}
+
+	/**
+	 * Writes every list and attribute value of the snapshot to the file, replacing it only once completely written
+	 * @return The number of entries and attribute lines written
+	 */
+	static int write(File file, WeaponRegistry registry, WeaponRegistrySnapshot snapshot) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Could not create directory " + parent);
+		}
+		File temp = new File(parent, file.getName() + ".tmp");
+		int count = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("# WeaponRegistry version " + snapshot.getVersion() + "; load with /" + SwordSkillsApi.ID + " import " + file.getName() + " [replace]");
+			writer.newLine();
+			for (WeaponRegistryHolder list : registry.getRegistries()) {
+				writer.newLine();
+				writer.write("[" + list.key + "]");
+				writer.newLine();
+				for (String entry : getEntries(snapshot, list)) {
+					writer.write(entry);
+					writer.newLine();
+					count++;
+				}
+			}
+			writer.newLine();
+			writer.write("[" + ATTRIBUTES + "]");
+			writer.newLine();
+			for (String entry : getAttributeEntries(snapshot)) {
+				writer.write(entry);
+				writer.newLine();
+				count++;
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return count;
+	}
+
+	/**
+	 * Adds every entry and attribute value in the file to the batch, overriding any existing entries
+	 * @return The number of entries and attribute lines read
+	 * @throws CommandException if the file is not in the expected format, in which case the batch should be discarded
+	 */
+	static int read(File file, WeaponRegistry registry, WeaponRegistry.Batch batch) throws IOException, CommandException {
+		int count = 0;
+		int lineNumber = 0;
+		WeaponRegistryHolder list = null;
+		boolean attributes = false;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				} else if (line.startsWith("[") && line.endsWith("]")) {
+					String key = line.substring(1, line.length() - 1).trim();
+					attributes = key.equals(ATTRIBUTES);
+					list = (attributes ? null : registry.getRegistryByKey(key));
+					if (list == null && !attributes) {
+						throw new CommandException("commands.swordskillsapi.import.malformed", file.getName(), lineNumber, line);
+					}
+				} else if (attributes) {
+					batch.setAttributes(line);
+					count++;
+				} else if (list == null) {
+					throw new CommandException("commands.swordskillsapi.import.malformed", file.getName(), lineNumber, line);
+				} else {
+					batch.add(list, line, true);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -1,17 +1,118 @@
 package swordskillsapi.event;
 
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumHand;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.network.FMLNetworkEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.HeldItemClassification;
+import swordskillsapi.api.item.ICacheableWeapon;
+import swordskillsapi.api.item.StackClassification;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.client.RegistryDiskCache;
+import swordskillsapi.network.AbstractMessage;
 import swordskillsapi.network.PacketDispatcher;
-import swordskillsapi.network.client.WeaponRegistryPacket;
+import swordskillsapi.network.RegistrySyncBuffer;
+import swordskillsapi.network.RegistryTransferManager;
+import swordskillsapi.network.client.RegistryChunkReceiver;
+import swordskillsapi.network.client.WeaponRegistryVersionPacket;
 
 public class ModEventHandler
 {
+	@SubscribeEvent
+	public void onAttachItemCapabilities(AttachCapabilitiesEvent<ItemStack> event) {
+		if (event.getObject().getItem() instanceof ICacheableWeapon) {
+			event.addCapability(StackClassification.KEY, StackClassification.createProvider((ICacheableWeapon) event.getObject().getItem()));
+		}
+	}
+
+	@SubscribeEvent
+	public void onAttachEntityCapabilities(AttachCapabilitiesEvent<Entity> event) {
+		if (event.getObject() instanceof EntityPlayer) {
+			event.addCapability(HeldItemClassification.KEY, HeldItemClassification.createProvider());
+		}
+	}
+
+	/**
+	 * Fired on the server whenever a held stack is replaced or modified, including changes to its damage or NBT
+	 */
+	@SubscribeEvent
+	public void onEquipmentChange(LivingEquipmentChangeEvent event) {
+		if (event.getEntityLiving() instanceof EntityPlayer && event.getSlot().getSlotType() == EntityEquipmentSlot.Type.HAND) {
+			EnumHand hand = (event.getSlot() == EntityEquipmentSlot.MAINHAND ? EnumHand.MAIN_HAND : EnumHand.OFF_HAND);
+			HeldItemClassification.invalidate((EntityPlayer) event.getEntityLiving(), hand);
+		}
+	}
+
 	@SubscribeEvent
 	public void onPlayerLoggedIn(PlayerLoggedInEvent event) {
+		if (event.player instanceof EntityPlayerMP && !PacketDispatcher.isLocal((EntityPlayerMP) event.player)) {
+			PacketDispatcher.sendTo(new WeaponRegistryVersionPacket(WeaponRegistry.INSTANCE), (EntityPlayerMP) event.player);
+		}
+	}
+
+	/**
+	 * The client hosting an integrated server shares its registry, so only remote connections replace the client's own
+	 */
+	@SubscribeEvent
+	public void onClientConnect(FMLNetworkEvent.ClientConnectedToServerEvent event) {
+		if (!event.isLocal()) {
+			WeaponRegistry.INSTANCE.onConnectedToRemoteServer();
+		}
+	}
+
+	/**
+	 * Fired on the network thread: drops any messages from the server still awaiting the main thread, so that
+	 * none can be applied after the client's own registry is restored, then saves the registry received from
+	 * the server, including any changes since and the server version it is synchronized with, for the next
+	 * visit and restores the client's own on the main thread
+	 */
+	@SubscribeEvent
+	public void onClientDisconnect(FMLNetworkEvent.ClientDisconnectionFromServerEvent event) {
+		AbstractMessage.clearQueue(Side.CLIENT);
+		RegistryChunkReceiver.reset();
+		SwordSkillsApi.proxy.scheduleClientTask(() -> {
+			WeaponRegistry registry = WeaponRegistry.INSTANCE;
+			long epoch = registry.getSyncedEpoch();
+			RegistryDiskCache.save(registry.getSnapshot(), epoch, registry.getSyncedVersion(epoch));
+			RegistryDiskCache.reset();
+			registry.onDisconnectedFromRemoteServer();
+		});
+	}
+
+	@SubscribeEvent
+	public void onPlayerLoggedOut(PlayerLoggedOutEvent event) {
 		if (event.player instanceof EntityPlayerMP) {
-			PacketDispatcher.sendTo(new WeaponRegistryPacket(), (EntityPlayerMP) event.player);
+			RegistryTransferManager.cancel((EntityPlayerMP) event.player);
+			PacketDispatcher.discard((EntityPlayerMP) event.player);
+		}
+	}
+
+	@SubscribeEvent
+	public void onClientTick(TickEvent.ClientTickEvent event) {
+		if (event.phase == TickEvent.Phase.START) {
+			AbstractMessage.processQueue(Side.CLIENT);
+		}
+	}
+
+	@SubscribeEvent
+	public void onServerTick(TickEvent.ServerTickEvent event) {
+		if (event.phase == TickEvent.Phase.START) {
+			AbstractMessage.processQueue(Side.SERVER);
+		} else if (event.phase == TickEvent.Phase.END) {
+			RegistrySyncBuffer.flush();
+			RegistryTransferManager.tick();
+			PacketDispatcher.flush();
 		}
 	}
 }
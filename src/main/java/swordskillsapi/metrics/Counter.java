@@ -0,0 +1,35 @@
+package swordskillsapi.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Thread-safe counter which does nothing while {@link RegistryMetrics} are disabled
+ *
+ */
+public final class Counter
+{
+	private final LongAdder value = new LongAdder();
+
+	Counter() {}
+
+	public void increment() {
+		if (RegistryMetrics.isEnabled()) {
+			this.value.increment();
+		}
+	}
+
+	public void add(long n) {
+		if (RegistryMetrics.isEnabled()) {
+			this.value.add(n);
+		}
+	}
+
+	public long get() {
+		return this.value.sum();
+	}
+
+	void reset() {
+		this.value.reset();
+	}
+}
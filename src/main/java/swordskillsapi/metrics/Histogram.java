@@ -0,0 +1,79 @@
+package swordskillsapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Thread-safe histogram of non-negative values, e.g. latencies in nanoseconds or sizes in bytes,
+ * recorded in power-of-two buckets so that recording a value never allocates or locks.
+ * Percentiles are therefore approximate, reported as the upper bound of the bucket they fall in.
+ * Does nothing while {@link RegistryMetrics} are disabled.
+ *
+ */
+public final class Histogram
+{
+	/** Bucket i holds values v with 2^(i-1) <= v < 2^i, bucket 0 holds only 0 */
+	private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	Histogram() {}
+
+	public void record(long value) {
+		if (RegistryMetrics.isEnabled()) {
+			value = Math.max(0L, value);
+			this.buckets.incrementAndGet(Math.min(63, 64 - Long.numberOfLeadingZeros(value)));
+			this.count.increment();
+			this.sum.add(value);
+			this.max.accumulate(value);
+		}
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getMax() {
+		return this.max.get();
+	}
+
+	public double getMean() {
+		long n = this.count.sum();
+		return (n == 0L ? 0.0D : (double) this.sum.sum() / n);
+	}
+
+	/**
+	 * Returns the approximate value below which the given fraction of recorded values fall
+	 * @param fraction Between 0.0 and 1.0, e.g. 0.99 for the 99th percentile
+	 */
+	public long getPercentile(double fraction) {
+		long n = this.count.sum();
+		if (n == 0L) {
+			return 0L;
+		}
+		long target = (long) Math.ceil(fraction * n);
+		long seen = 0L;
+		for (int i = 0; i < 64; i++) {
+			seen += this.buckets.get(i);
+			if (seen >= target) {
+				return Math.min(this.getMax(), (i == 0 ? 0L : (1L << i) - 1));
+			}
+		}
+		return this.getMax();
+	}
+
+	void reset() {
+		for (int i = 0; i < 64; i++) {
+			this.buckets.set(i, 0L);
+		}
+		this.count.reset();
+		this.sum.reset();
+		this.max.reset();
+	}
+}
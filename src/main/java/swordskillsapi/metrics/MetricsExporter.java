@@ -0,0 +1,64 @@
+package swordskillsapi.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import swordskillsapi.SwordSkillsApi;
+
+/**
+ * 
+ * Periodically writes the {@link RegistryMetrics#report()} to a local text file from a background thread
+ *
+ */
+public final class MetricsExporter
+{
+	private static ScheduledExecutorService executor;
+
+	private MetricsExporter() {}
+
+	/**
+	 * Starts exporting metrics to the file every given number of seconds, replacing any previous export
+	 */
+	public static synchronized void start(File file, int intervalSeconds) {
+		stop();
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, SwordSkillsApi.ID + " metrics exporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(() -> export(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	public static synchronized void stop() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private static void export(File file) {
+		List<String> lines = new ArrayList<String>();
+		lines.add("# " + SwordSkillsApi.NAME + " metrics as of " + new Date());
+		lines.addAll(RegistryMetrics.report());
+		try {
+			File parent = file.getAbsoluteFile().getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			File temp = new File(parent, file.getName() + ".tmp");
+			Files.write(temp.toPath(), lines, StandardCharsets.UTF_8);
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			SwordSkillsApi.LOGGER.warn("Failed to export metrics to %s: %s", file, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package swordskillsapi.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 
+ * Counters and histograms describing WeaponRegistry usage and network traffic, reported by the
+ * '/swordskillsapi stats' command and optionally exported periodically by {@link MetricsExporter}.
+ * 
+ * Metrics are disabled by default, in which case recording a value costs no more than reading a
+ * static field; callers timing an operation should check {@link #isEnabled()} before calling
+ * {@link System#nanoTime()}.
+ *
+ */
+public final class RegistryMetrics
+{
+	private static volatile boolean enabled;
+
+	/** Item classifications answered directly from the snapshot's classification table */
+	public static final Counter CLASSIFY_TABLE = new Counter();
+
+	/** Item classifications requiring the item's class and registry lists to be looked up */
+	public static final Counter CLASSIFY_LOOKUP = new Counter();
+
+	/** ItemStack classifications delegated to {@link swordskillsapi.api.item.IWeapon} */
+	public static final Counter CLASSIFY_IWEAPON = new Counter();
+
+	/** ItemStack classifications answered from the stack's {@link swordskillsapi.api.item.StackClassification} cache */
+	public static final Counter CLASSIFY_STACK_CACHED = new Counter();
+
+	/** Held item classifications answered from the player's {@link swordskillsapi.api.item.HeldItemClassification} cache */
+	public static final Counter CLASSIFY_HELD_CACHED = new Counter();
+
+	/** Latency in nanoseconds of classifying an Item via the registry */
+	public static final Histogram CLASSIFY_ITEM_NANOS = new Histogram();
+
+	/** Latency in nanoseconds of classifying an ItemStack via its {@link swordskillsapi.api.item.IWeapon} */
+	public static final Histogram CLASSIFY_IWEAPON_NANOS = new Histogram();
+
+	/** Number of new registry snapshots published */
+	public static final Counter REGISTRY_COMMITS = new Counter();
+
+	/** Number of entries changed by all published snapshots, counting the entire registry for wholesale replacements */
+	public static final Counter REGISTRY_CHANGES = new Counter();
+
+	private static final Map<String, PacketStats> sent = new ConcurrentHashMap<String, PacketStats>();
+
+	private static final Map<String, PacketStats> received = new ConcurrentHashMap<String, PacketStats>();
+
+	private RegistryMetrics() {}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enable) {
+		enabled = enable;
+	}
+
+	/**
+	 * Records a message of the given type encoded into the given number of bytes for sending
+	 */
+	public static void recordSent(Class<?> type, int bytes) {
+		if (enabled) {
+			sent.computeIfAbsent(type.getSimpleName(), k -> new PacketStats()).record(bytes);
+		}
+	}
+
+	/**
+	 * Records a message of the given type decoded from the given number of bytes upon receipt
+	 */
+	public static void recordReceived(Class<?> type, int bytes) {
+		if (enabled) {
+			received.computeIfAbsent(type.getSimpleName(), k -> new PacketStats()).record(bytes);
+		}
+	}
+
+	/**
+	 * Clears all recorded values
+	 */
+	public static void reset() {
+		CLASSIFY_TABLE.reset();
+		CLASSIFY_LOOKUP.reset();
+		CLASSIFY_IWEAPON.reset();
+		CLASSIFY_STACK_CACHED.reset();
+		CLASSIFY_HELD_CACHED.reset();
+		CLASSIFY_ITEM_NANOS.reset();
+		CLASSIFY_IWEAPON_NANOS.reset();
+		REGISTRY_COMMITS.reset();
+		REGISTRY_CHANGES.reset();
+		sent.clear();
+		received.clear();
+	}
+
+	/**
+	 * Returns a human-readable summary of all metrics, one line per metric
+	 */
+	public static List<String> report() {
+		List<String> lines = new ArrayList<String>();
+		lines.add(String.format("classify: table=%d lookup=%d iweapon=%d stack_cached=%d held_cached=%d", CLASSIFY_TABLE.get(), CLASSIFY_LOOKUP.get(), CLASSIFY_IWEAPON.get(), CLASSIFY_STACK_CACHED.get(), CLASSIFY_HELD_CACHED.get()));
+		lines.add("classify.item.ns: " + describe(CLASSIFY_ITEM_NANOS));
+		lines.add("classify.iweapon.ns: " + describe(CLASSIFY_IWEAPON_NANOS));
+		lines.add(String.format("registry: commits=%d changes=%d", REGISTRY_COMMITS.get(), REGISTRY_CHANGES.get()));
+		new TreeMap<String, PacketStats>(sent).forEach((name, stats) -> lines.add("sent." + name + ": " + stats));
+		new TreeMap<String, PacketStats>(received).forEach((name, stats) -> lines.add("received." + name + ": " + stats));
+		return lines;
+	}
+
+	private static String describe(Histogram histogram) {
+		return String.format("count=%d mean=%.1f p50=%d p99=%d max=%d", histogram.getCount(), histogram.getMean(), histogram.getPercentile(0.5D), histogram.getPercentile(0.99D), histogram.getMax());
+	}
+
+	private static final class PacketStats
+	{
+		private final Counter bytes = new Counter();
+
+		private final Histogram sizes = new Histogram();
+
+		private void record(int size) {
+			this.bytes.add(size);
+			this.sizes.record(size);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("bytes=%d size[%s]", this.bytes.get(), describe(this.sizes));
+		}
+	}
+}
@@ -1,16 +1,18 @@
 package swordskillsapi.network;
 
 import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.network.PacketBuffer;
-import net.minecraft.util.IThreadListener;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
 import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.metrics.RegistryMetrics;
 
 /**
  * 
@@ -18,10 +20,23 @@ import swordskillsapi.SwordSkillsApi;
  * useful methods as well as implementing a final version of IMessageHandler which
  * calls {@link #process(EntityPlayer, Side)} on each received message, letting the
  * message handle itself rather than having to add an extra class in each one.
+ * 
+ * Messages requiring the main thread are first {@link #prepare(Side) prepared} on the
+ * network thread and then added to a lock-free queue for their side, which is drained
+ * once per tick by {@link #processQueue(Side)}.
  *
  */
 public abstract class AbstractMessage<T extends AbstractMessage<T>> implements IMessage, IMessageHandler <T, IMessage>
 {
+	/** Messages received by the client awaiting processing on the main client thread */
+	private static final Queue<AbstractMessage<?>> CLIENT_QUEUE = new ConcurrentLinkedQueue<AbstractMessage<?>>();
+
+	/** Messages received by the server awaiting processing on the main server thread */
+	private static final Queue<AbstractMessage<?>> SERVER_QUEUE = new ConcurrentLinkedQueue<AbstractMessage<?>>();
+
+	/** Context in which a queued message was received, cleared once processed */
+	private MessageContext context;
+
 	/**
 	 * Some PacketBuffer methods throw IOException - default handling propagates the exception.
 	 * If an IOException is expected but should not be fatal, handle it within this method.
@@ -34,11 +49,20 @@ public abstract class AbstractMessage<T extends AbstractMessage<T>> implements I
 	 */
 	protected abstract void write(PacketBuffer buffer) throws IOException;
 
+	/**
+	 * Called on the network thread as soon as the message has been read, before it is
+	 * queued for {@link #process(EntityPlayer, Side)}. Override to perform expensive work
+	 * that does not modify shared state, e.g. decoding or loading data, so that the main
+	 * thread need only apply the result; must not access the world or player.
+	 */
+	protected void prepare(Side side) {}
+
 	/**
 	 * Called on whichever side the message is received;
 	 * for bidirectional packets, be sure to check side
 	 * If {@link #requiresMainThread()} returns true, this method is guaranteed
-	 * to be called on the main Minecraft thread for the side given.
+	 * to be called on the main Minecraft thread for the side given, in the same
+	 * order as the messages were received, during the next tick.
 	 */
 	protected abstract void process(EntityPlayer player, Side side);
 
@@ -58,10 +82,20 @@ public abstract class AbstractMessage<T extends AbstractMessage<T>> implements I
 		return true;
 	}
 
+	/**
+	 * Returns the number of bytes last read or written by this message that belong to other messages nested
+	 * within it, which record their own size, so that no byte is recorded in the metrics more than once
+	 */
+	int getNestedBytes() {
+		return 0;
+	}
+
 	@Override
 	public void fromBytes(ByteBuf buffer) {
+		int start = buffer.readerIndex();
 		try {
 			read(new PacketBuffer(buffer));
+			RegistryMetrics.recordReceived(getClass(), buffer.readerIndex() - start - getNestedBytes());
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -69,8 +103,10 @@ public abstract class AbstractMessage<T extends AbstractMessage<T>> implements I
 
 	@Override
 	public void toBytes(ByteBuf buffer) {
+		int start = buffer.writerIndex();
 		try {
 			write(new PacketBuffer(buffer));
+			RegistryMetrics.recordSent(getClass(), buffer.writerIndex() - start - getNestedBytes());
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -78,30 +114,54 @@ public abstract class AbstractMessage<T extends AbstractMessage<T>> implements I
 
 	@Override
 	public final IMessage onMessage(T msg, MessageContext ctx) {
-		if (!msg.isValidOnSide(ctx.side)) {
-			throw new RuntimeException("Invalid side " + ctx.side.name() + " for " + msg.getClass().getSimpleName());
-		} else if (msg.requiresMainThread()) {
-			checkThreadAndEnqueue(msg, ctx);
+		msg.receive(ctx);
+		return null;
+	}
+
+	/**
+	 * Prepares the message and then processes it or queues it for the main thread, as appropriate
+	 */
+	void receive(MessageContext ctx) {
+		if (!this.isValidOnSide(ctx.side)) {
+			throw new RuntimeException("Invalid side " + ctx.side.name() + " for " + this.getClass().getSimpleName());
+		}
+		this.prepare(ctx.side);
+		if (this.requiresMainThread()) {
+			this.context = ctx;
+			getQueue(ctx.side).offer(this);
 		} else {
-			msg.process(SwordSkillsApi.proxy.getPlayerEntity(ctx), ctx.side);
+			this.process(SwordSkillsApi.proxy.getPlayerEntity(ctx), ctx.side);
 		}
-		return null;
 	}
 
 	/**
-	 * Ensures that the message is being handled on the main thread
+	 * Processes every message queued for the main thread of the given side, in the order received;
+	 * must be called once per tick from that side's main thread.
 	 */
-	private static final <T extends AbstractMessage<T>> void checkThreadAndEnqueue(final AbstractMessage<T> msg, final MessageContext ctx) {
-		IThreadListener thread = SwordSkillsApi.proxy.getThreadFromContext(ctx);
-		if (!thread.isCallingFromMinecraftThread()) {
-			thread.addScheduledTask(new Runnable() {
-				public void run() {
-					msg.process(SwordSkillsApi.proxy.getPlayerEntity(ctx), ctx.side);
-				}
-			});
+	public static void processQueue(Side side) {
+		Queue<AbstractMessage<?>> queue = getQueue(side);
+		for (AbstractMessage<?> msg = queue.poll(); msg != null; msg = queue.poll()) {
+			MessageContext ctx = msg.context;
+			msg.context = null;
+			try {
+				msg.process(SwordSkillsApi.proxy.getPlayerEntity(ctx), side);
+			} catch (RuntimeException e) {
+				SwordSkillsApi.LOGGER.error(e, "Error processing %s on the %s side", msg.getClass().getSimpleName(), side.name());
+			}
 		}
 	}
 
+	/**
+	 * Discards every message queued for the main thread of the given side, e.g. when the server stops
+	 */
+	public static void clearQueue(Side side) {
+		getQueue(side).clear();
+	}
+
+	private static Queue<AbstractMessage<?>> getQueue(Side side) {
+		return (side.isClient() ? CLIENT_QUEUE : SERVER_QUEUE);
+	}
+
 	/**
 	 * Messages that can only be sent from the server to the client should use this class
 	 */
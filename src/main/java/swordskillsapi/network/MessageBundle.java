@@ -0,0 +1,113 @@
+package swordskillsapi.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+
+/**
+ * 
+ * Carries every message queued for a player during one tick by {@link PacketDispatcher#sendTo}
+ * as a single packet. Each message is written as its length-prefixed discriminator and contents,
+ * and upon receipt is decoded and handled exactly as if it had been sent on its own.
+ * 
+ * Each bundled message records its own size in the metrics, so the bundle records only the bytes
+ * it adds itself, i.e. the message count, length prefixes and discriminators.
+ *
+ */
+public class MessageBundle extends AbstractClientMessage<MessageBundle>
+{
+	/** Encoded messages to be written, each beginning with its discriminator; released once written */
+	private List<ByteBuf> frames;
+
+	/** Messages decoded upon receipt */
+	private List<AbstractMessage<?>> messages;
+
+	/** Total size of the bundled messages' contents last read or written, excluding their discriminators */
+	private int nestedBytes;
+
+	public MessageBundle() {}
+
+	/**
+	 * @param frames Messages as encoded by {@link PacketDispatcher}; the bundle takes ownership of each
+	 */
+	MessageBundle(List<ByteBuf> frames) {
+		this.frames = frames;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		int n = buffer.readVarInt();
+		this.messages = new ArrayList<AbstractMessage<?>>(n);
+		this.nestedBytes = 0;
+		for (int i = 0; i < n; i++) {
+			int length = buffer.readVarInt();
+			ByteBuf frame = buffer.readSlice(length);
+			AbstractMessage<?> message = PacketDispatcher.createMessage(frame.readUnsignedByte());
+			message.fromBytes(frame);
+			this.messages.add(message);
+			this.nestedBytes += length - 1;
+		}
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		try {
+			buffer.writeVarInt(this.frames.size());
+			this.nestedBytes = 0;
+			for (ByteBuf frame : this.frames) {
+				buffer.writeVarInt(frame.readableBytes());
+				buffer.writeBytes(frame, frame.readerIndex(), frame.readableBytes());
+				this.nestedBytes += frame.readableBytes() - 1;
+			}
+		} finally {
+			release(this.frames);
+		}
+	}
+
+	@Override
+	int getNestedBytes() {
+		return this.nestedBytes;
+	}
+
+	/**
+	 * Checks the side and then passes each bundled message on to be prepared and processed or queued as if received on its own
+	 */
+	@Override
+	void receive(MessageContext ctx) {
+		super.receive(ctx);
+		this.messages.forEach(message -> message.receive(ctx));
+	}
+
+	@Override
+	protected boolean requiresMainThread() {
+		return false;
+	}
+
+	/**
+	 * Does nothing: the bundle itself carries no state, and its messages are handled by {@link #receive(MessageContext)}
+	 */
+	@Override
+	protected void process(EntityPlayer player, Side side) {}
+
+	/**
+	 * Returns the messages decoded upon receipt
+	 */
+	List<AbstractMessage<?>> getMessages() {
+		return this.messages;
+	}
+
+	/**
+	 * Releases and removes every frame from the list
+	 */
+	static void release(List<ByteBuf> frames) {
+		frames.forEach(ByteBuf::release);
+		frames.clear();
+	}
+}
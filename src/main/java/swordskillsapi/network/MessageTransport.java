@@ -0,0 +1,43 @@
+package swordskillsapi.network;
+
+import java.util.Collection;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+
+/**
+ *
+ * Delivers the messages sent by {@link PacketDispatcher} to players. By default this is the mod's
+ * {@link SimpleNetworkWrapper} channel and the players of the running server, but it may be replaced,
+ * e.g. by a load simulation, to drive the dispatcher without any server or network.
+ *
+ */
+public interface MessageTransport
+{
+	/**
+	 * Sends the message to the player's client
+	 */
+	void sendTo(IMessage message, EntityPlayerMP player);
+
+	/**
+	 * Sends the message to every connected player's client
+	 */
+	void sendToAll(IMessage message);
+
+	/**
+	 * Returns every connected player
+	 */
+	Collection<EntityPlayerMP> getPlayers();
+
+	/**
+	 * Returns true if the player may still be sent messages, i.e. has not disconnected
+	 */
+	boolean isConnected(EntityPlayerMP player);
+
+	/**
+	 * Returns true if the player is the host of an integrated server, whose client shares the server's objects
+	 */
+	boolean isLocal(EntityPlayerMP player);
+
+}
@@ -1,19 +1,41 @@
 package swordskillsapi.network;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.Config;
 import swordskillsapi.SwordSkillsApi;
 import swordskillsapi.network.client.*;
+import swordskillsapi.network.server.*;
 
 /**
  * 
  * Houses the SimpleNetworkWrapper instance and provides wrapper methods for sending packets.
+ * 
+ * When enabled in the config, messages sent to individual players via {@link #sendTo} or
+ * {@link #sendToAll} are queued and sent once per tick as a single {@link MessageBundle}.
+ * 
+ * Messages to players are delivered by the current {@link MessageTransport}, normally the network
+ * channel, which may be replaced by {@link #setTransport} to run without a server or network.
  *
  */
 public class PacketDispatcher
@@ -22,19 +44,52 @@ public class PacketDispatcher
 
 	private static final SimpleNetworkWrapper dispatcher = NetworkRegistry.INSTANCE.newSimpleChannel(SwordSkillsApi.ID);
 
+	/** Maximum size in bytes of a {@link MessageBundle}; messages beyond it are sent in a further bundle */
+	private static final int MAX_BUNDLE_SIZE = 1000000;
+
+	/** Discriminator of each registered message class, as used within a {@link MessageBundle} */
+	private static final Map<Class<?>, Integer> discriminators = new HashMap<Class<?>, Integer>();
+
+	/** Message class for each discriminator */
+	private static final Class<?>[] messageClasses = new Class<?>[256];
+
+	private static final MessageTransport NETWORK = new NetworkTransport();
+
+	private static MessageTransport transport = NETWORK;
+
+	/** Encoded messages awaiting {@link #flush()} for each player */
+	private static final Map<EntityPlayerMP, List<ByteBuf>> outbound = new LinkedHashMap<EntityPlayerMP, List<ByteBuf>>();
+
 	/**
 	 *  Registers all packets and handlers - call this during {@link FMLPreInitializationEvent}
 	 */
 	public static final void initialize() {
 		// Packets handled on CLIENT
 		registerMessage(WeaponRegistryPacket.class);
-		registerMessage(SyncWeaponRegistryPacket.class);
+		registerMessage(WeaponRegistryDeltaPacket.class);
+		registerMessage(WeaponRegistryVersionPacket.class);
+		registerMessage(UseCachedWeaponRegistryPacket.class);
+		registerMessage(WeaponRegistryChunkPacket.class);
+		registerMessage(MessageBundle.class);
+
+		// Packets handled on SERVER
+		registerMessage(RequestWeaponRegistryPacket.class);
+		registerMessage(AckWeaponRegistryChunkPacket.class);
+	}
+
+	/**
+	 * Replaces the transport delivering messages to players, or restores the network channel if null
+	 */
+	public static void setTransport(@Nullable MessageTransport transport) {
+		PacketDispatcher.transport = (transport == null ? NETWORK : transport);
 	}
 
 	/**
 	 * Registers an {@link AbstractMessage} to the appropriate side(s)
 	 */
 	private static final <T extends AbstractMessage<T> & IMessageHandler<T, IMessage>> void registerMessage(Class<T> clazz) {
+		discriminators.put(clazz, packetId & 0xFF);
+		messageClasses[packetId & 0xFF] = clazz;
 		if (AbstractMessage.AbstractClientMessage.class.isAssignableFrom(clazz)) {
 			PacketDispatcher.dispatcher.registerMessage(clazz, clazz, packetId++, Side.CLIENT);
 		} else if (AbstractMessage.AbstractServerMessage.class.isAssignableFrom(clazz)) {
@@ -50,7 +105,14 @@ public class PacketDispatcher
 	 * See {@link SimpleNetworkWrapper#sendTo(IMessage, EntityPlayerMP)}
 	 */
 	public static final void sendTo(IMessage message, EntityPlayerMP player) {
-		PacketDispatcher.dispatcher.sendTo(message, player);
+		if (!Config.isMessageBatchingEnabled() || !discriminators.containsKey(message.getClass())) {
+			PacketDispatcher.transport.sendTo(message, player);
+			return;
+		}
+		ByteBuf frame = PacketDispatcher.encode(message);
+		synchronized (outbound) {
+			outbound.computeIfAbsent(player, p -> new ArrayList<ByteBuf>()).add(frame);
+		}
 	}
 
 	/**
@@ -58,7 +120,131 @@ public class PacketDispatcher
 	 * See {@link SimpleNetworkWrapper#sendToAll(IMessage)}
 	 */
 	public static void sendToAll(IMessage message) {
-		PacketDispatcher.dispatcher.sendToAll(message);
+		if (!Config.isMessageBatchingEnabled() || !discriminators.containsKey(message.getClass())) {
+			PacketDispatcher.transport.sendToAll(message);
+			return;
+		}
+		Collection<EntityPlayerMP> players = PacketDispatcher.transport.getPlayers();
+		if (players.isEmpty()) {
+			return;
+		}
+		// Encode the message only once and share it between each player's bundle
+		ByteBuf frame = PacketDispatcher.encode(message);
+		synchronized (outbound) {
+			for (EntityPlayerMP player : players) {
+				outbound.computeIfAbsent(player, p -> new ArrayList<ByteBuf>()).add(frame.retainedDuplicate());
+			}
+		}
+		frame.release();
+	}
+
+	/**
+	 * Send this message to every player except the host of an integrated server, whose client shares the
+	 * server's objects and so needs no copy of them; nothing at all is encoded if there are no such players.
+	 */
+	public static void sendToRemote(IMessage message) {
+		List<EntityPlayerMP> players = new ArrayList<EntityPlayerMP>();
+		for (EntityPlayerMP player : PacketDispatcher.transport.getPlayers()) {
+			if (!isLocal(player)) {
+				players.add(player);
+			}
+		}
+		if (players.isEmpty()) {
+			return;
+		} else if (!Config.isMessageBatchingEnabled() || !discriminators.containsKey(message.getClass())) {
+			players.forEach(player -> PacketDispatcher.transport.sendTo(message, player));
+			return;
+		}
+		ByteBuf frame = PacketDispatcher.encode(message);
+		synchronized (outbound) {
+			for (EntityPlayerMP player : players) {
+				outbound.computeIfAbsent(player, p -> new ArrayList<ByteBuf>()).add(frame.retainedDuplicate());
+			}
+		}
+		frame.release();
+	}
+
+	/**
+	 * Returns true if the player is connected via the integrated server's local channel, i.e. is the host playing in the same JVM
+	 */
+	public static boolean isLocal(EntityPlayerMP player) {
+		return PacketDispatcher.transport.isLocal(player);
+	}
+
+	/**
+	 * Sends every message queued by {@link #sendTo} or {@link #sendToAll} during this tick,
+	 * bundled into as few packets per player as possible - call once at the end of each server tick
+	 */
+	public static void flush() {
+		synchronized (outbound) {
+			for (Map.Entry<EntityPlayerMP, List<ByteBuf>> entry : outbound.entrySet()) {
+				List<ByteBuf> frames = entry.getValue();
+				if (!PacketDispatcher.transport.isConnected(entry.getKey())) {
+					MessageBundle.release(frames);
+					continue;
+				}
+				List<ByteBuf> bundle = new ArrayList<ByteBuf>();
+				int size = 0;
+				for (ByteBuf frame : frames) {
+					if (!bundle.isEmpty() && size + frame.readableBytes() > MAX_BUNDLE_SIZE) {
+						PacketDispatcher.transport.sendTo(new MessageBundle(bundle), entry.getKey());
+						bundle = new ArrayList<ByteBuf>();
+						size = 0;
+					}
+					bundle.add(frame);
+					size += frame.readableBytes() + 5;
+				}
+				PacketDispatcher.transport.sendTo(new MessageBundle(bundle), entry.getKey());
+			}
+			outbound.clear();
+		}
+	}
+
+	/**
+	 * Discards any messages queued for the player, e.g. when logging out
+	 */
+	public static void discard(EntityPlayerMP player) {
+		synchronized (outbound) {
+			List<ByteBuf> frames = outbound.remove(player);
+			if (frames != null) {
+				MessageBundle.release(frames);
+			}
+		}
+	}
+
+	/**
+	 * Discards all queued messages, e.g. when the server stops
+	 */
+	public static void clear() {
+		synchronized (outbound) {
+			outbound.values().forEach(MessageBundle::release);
+			outbound.clear();
+		}
+	}
+
+	/**
+	 * Returns a new instance of the message class registered with the discriminator
+	 */
+	static AbstractMessage<?> createMessage(int discriminator) {
+		Class<?> clazz = messageClasses[discriminator];
+		if (clazz == null) {
+			throw new IllegalArgumentException("Undefined message discriminator " + discriminator);
+		}
+		try {
+			return (AbstractMessage<?>) clazz.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("Could not create message " + clazz.getSimpleName(), e);
+		}
+	}
+
+	/**
+	 * Encodes the message preceded by its discriminator
+	 */
+	private static ByteBuf encode(IMessage message) {
+		ByteBuf frame = Unpooled.buffer();
+		frame.writeByte(discriminators.get(message.getClass()));
+		message.toBytes(frame);
+		return frame;
 	}
 
 	/**
@@ -100,4 +286,36 @@ public class PacketDispatcher
 	public static final void sendToServer(IMessage message) {
 		PacketDispatcher.dispatcher.sendToServer(message);
 	}
+
+	/**
+	 * Delivers messages over the mod's network channel to the players of the running server
+	 */
+	private static final class NetworkTransport implements MessageTransport
+	{
+		@Override
+		public void sendTo(IMessage message, EntityPlayerMP player) {
+			PacketDispatcher.dispatcher.sendTo(message, player);
+		}
+
+		@Override
+		public void sendToAll(IMessage message) {
+			PacketDispatcher.dispatcher.sendToAll(message);
+		}
+
+		@Override
+		public Collection<EntityPlayerMP> getPlayers() {
+			MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+			return (server == null ? Collections.<EntityPlayerMP>emptyList() : server.getPlayerList().getPlayers());
+		}
+
+		@Override
+		public boolean isConnected(EntityPlayerMP player) {
+			return player.connection != null;
+		}
+
+		@Override
+		public boolean isLocal(EntityPlayerMP player) {
+			return player.connection != null && player.connection.getNetworkManager().isLocalChannel();
+		}
+	}
 }
@@ -0,0 +1,88 @@
+package swordskillsapi.network;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+import swordskillsapi.network.client.WeaponRegistryPacket;
+
+/**
+ * 
+ * Keeps the encoded contents of the current WeaponRegistry for each format so that any number of
+ * {@link WeaponRegistryPacket}s sent between two changes to the registry are serialized only once.
+ * 
+ * An encoded payload is replaced as soon as the registry publishes a new snapshot; each payload
+ * handed out holds its own reference, so it remains valid even after the cache has moved on.
+ *
+ */
+public class RegistryPayloadCache
+{
+	private static final Map<WeaponRegistryCodec.Format, Entry> entries = new EnumMap<WeaponRegistryCodec.Format, Entry>(WeaponRegistryCodec.Format.class);
+
+	/**
+	 * Returns the encoded contents of the current {@link WeaponRegistry#INSTANCE} in the given format, as expected
+	 * by {@link WeaponRegistryPacket}; the caller owns one reference to the returned buffer and must release it.
+	 */
+	public static ByteBuf get(WeaponRegistryCodec.Format format) {
+		return get(format, WeaponRegistry.INSTANCE.getSnapshot());
+	}
+
+	/**
+	 * Returns the encoded contents of the given snapshot of {@link WeaponRegistry#INSTANCE}, which is only cached
+	 * if it is still the current snapshot; the caller owns one reference to the returned buffer and must release it.
+	 */
+	public static synchronized ByteBuf get(WeaponRegistryCodec.Format format, WeaponRegistrySnapshot snapshot) {
+		Entry entry = entries.get(format);
+		if (entry != null && entry.snapshot == snapshot) {
+			return entry.payload.retainedDuplicate();
+		} else if (snapshot != WeaponRegistry.INSTANCE.getSnapshot()) {
+			// No further packets will be built from a superseded snapshot, so it is not worth caching
+			return encode(WeaponRegistry.INSTANCE.getEpoch(), snapshot, format);
+		}
+		if (entry == null || entry.snapshot != snapshot) {
+			if (entry != null) {
+				entry.payload.release();
+			}
+			entry = new Entry(snapshot, encode(WeaponRegistry.INSTANCE.getEpoch(), snapshot, format));
+			entries.put(format, entry);
+		}
+		return entry.payload.retainedDuplicate();
+	}
+
+	/**
+	 * Releases all cached payloads, e.g. when the server stops
+	 */
+	public static synchronized void clear() {
+		entries.values().forEach(entry -> entry.payload.release());
+		entries.clear();
+	}
+
+	/**
+	 * Encodes the snapshot's contents in the format expected by {@link WeaponRegistryPacket}
+	 */
+	public static ByteBuf encode(long epoch, WeaponRegistrySnapshot snapshot, WeaponRegistryCodec.Format format) {
+		ByteBuf payload = Unpooled.buffer();
+		PacketBuffer buffer = new PacketBuffer(payload);
+		buffer.writeLong(epoch);
+		buffer.writeVarLong(snapshot.getVersion());
+		snapshot.encode(buffer, format);
+		return payload;
+	}
+
+	private static final class Entry
+	{
+		private final WeaponRegistrySnapshot snapshot;
+
+		private final ByteBuf payload;
+
+		private Entry(WeaponRegistrySnapshot snapshot, ByteBuf payload) {
+			this.snapshot = snapshot;
+			this.payload = payload;
+		}
+	}
+}
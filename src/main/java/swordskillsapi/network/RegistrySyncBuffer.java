@@ -0,0 +1,80 @@
+package swordskillsapi.network;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.network.client.WeaponRegistryDeltaPacket;
+import swordskillsapi.network.client.WeaponRegistryVersionPacket;
+
+/**
+ * 
+ * Collects WeaponRegistry changes made during a server tick so that they can be sent to
+ * all clients as a single {@link WeaponRegistryDeltaPacket}, keeping only the final
+ * state of any item that changed more than once. Since the same packet is sent to every
+ * client, it uses a format that does not depend on the client's item id map.
+ * 
+ * The host of an integrated server shares the server's registry and is never sent any changes.
+ *
+ */
+public class RegistrySyncBuffer
+{
+	private static final Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> changes = new LinkedHashMap<ResourceLocation, WeaponRegistry.WeaponRegistryHolder>();
+
+	private static long epoch;
+
+	/** Registry version immediately preceding the first buffered change */
+	private static long from;
+
+	/** Registry version of the most recent buffered change */
+	private static long to;
+
+	/**
+	 * Buffers a change to be sent to all clients on the next {@link #flush()}
+	 * @param registry The item's new registry list, or null if it is no longer on any list
+	 * @param version  Registry version in which the change was made
+	 */
+	public static synchronized void add(long epoch, long version, ResourceLocation location, @Nullable WeaponRegistry.WeaponRegistryHolder registry) {
+		if (!changes.isEmpty() && (epoch != RegistrySyncBuffer.epoch || version > to + 1)) {
+			// Clients cannot apply changes from non-consecutive versions as a single delta
+			flush();
+		}
+		if (changes.isEmpty()) {
+			RegistrySyncBuffer.epoch = epoch;
+			RegistrySyncBuffer.from = version - 1;
+		}
+		RegistrySyncBuffer.to = version;
+		changes.remove(location);
+		changes.put(location, registry);
+	}
+
+	/**
+	 * Sends all buffered changes, if any, to all remote clients - call once per server tick
+	 */
+	public static synchronized void flush() {
+		if (!changes.isEmpty()) {
+			PacketDispatcher.sendToRemote(new WeaponRegistryDeltaPacket(epoch, from, to, changes, WeaponRegistryCodec.Format.NAMESPACES));
+			changes.clear();
+		}
+	}
+
+	/**
+	 * Sends all buffered changes followed by the registry's new version to all clients, prompting each to request the
+	 * changes it is missing; used when changes cannot be sent as a delta, e.g. when class rules have changed
+	 */
+	public static synchronized void resync(WeaponRegistry registry) {
+		flush();
+		PacketDispatcher.sendToRemote(new WeaponRegistryVersionPacket(registry));
+	}
+
+	/**
+	 * Discards all buffered changes, e.g. when the server stops
+	 */
+	public static synchronized void clear() {
+		changes.clear();
+	}
+}
@@ -0,0 +1,136 @@
+package swordskillsapi.network;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import swordskillsapi.Config;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+import swordskillsapi.network.client.WeaponRegistryChunkPacket;
+import swordskillsapi.network.client.WeaponRegistryPacket;
+
+/**
+ * 
+ * Sends the entire WeaponRegistry to clients, splitting registries too large for a single
+ * {@link WeaponRegistryPacket} into {@link WeaponRegistryChunkPacket}s. The first chunk is sent at once,
+ * and the rest at the end of each server tick, with no more than a configured number of chunks awaiting
+ * acknowledgement by each client at any time, so that a huge registry is paced to what the client can handle.
+ * 
+ * Only to be used from the main server thread.
+ *
+ */
+public class RegistryTransferManager
+{
+	private static final Map<UUID, Transfer> transfers = new HashMap<UUID, Transfer>();
+
+	private static int nextTransferId = 0;
+
+	/**
+	 * Sends the current registry to the player in the given format, either at once or in chunks over the following ticks
+	 */
+	public static void send(EntityPlayerMP player, WeaponRegistryCodec.Format format) {
+		WeaponRegistrySnapshot snapshot = WeaponRegistry.INSTANCE.getSnapshot();
+		ByteBuf payload = RegistryPayloadCache.get(format, snapshot);
+		if (payload.readableBytes() <= Config.getChunkSize()) {
+			payload.release();
+			PacketDispatcher.sendTo(new WeaponRegistryPacket(format, snapshot), player);
+			return;
+		}
+		Transfer transfer = new Transfer(player, nextTransferId++, payload);
+		Transfer previous = transfers.put(player.getUniqueID(), transfer);
+		if (previous != null) {
+			previous.payload.release();
+		}
+		// The first chunk must precede any delta sent by RegistrySyncBuffer at the end of this tick, which
+		// the client only holds back until the transfer completes once it has received the first chunk;
+		// otherwise the delta would be applied first and then overwritten by the older registry
+		transfer.sendNextChunk();
+	}
+
+	/**
+	 * Called when the client has received a chunk
+	 */
+	public static void onChunkAcknowledged(EntityPlayerMP player, int transferId, int index) {
+		Transfer transfer = transfers.get(player.getUniqueID());
+		if (transfer != null && transfer.id == transferId && index >= transfer.acked) {
+			transfer.acked = index + 1;
+			if (transfer.acked == transfer.count) {
+				transfers.remove(player.getUniqueID());
+				transfer.payload.release();
+			}
+		}
+	}
+
+	/**
+	 * Sends as many chunks as each client's window allows - call once per server tick
+	 */
+	public static void tick() {
+		int window = Config.getChunkWindow();
+		for (Transfer transfer : transfers.values()) {
+			while (transfer.sent < transfer.count && transfer.sent - transfer.acked < window) {
+				transfer.sendNextChunk();
+			}
+		}
+	}
+
+	/**
+	 * Abandons any transfer to the player, e.g. when logging out
+	 */
+	public static void cancel(EntityPlayerMP player) {
+		Transfer transfer = transfers.remove(player.getUniqueID());
+		if (transfer != null) {
+			transfer.payload.release();
+		}
+	}
+
+	/**
+	 * Abandons all transfers, e.g. when the server stops
+	 */
+	public static void clear() {
+		for (Iterator<Transfer> iterator = transfers.values().iterator(); iterator.hasNext();) {
+			iterator.next().payload.release();
+			iterator.remove();
+		}
+	}
+
+	private static final class Transfer
+	{
+		private final EntityPlayerMP player;
+
+		private final int id;
+
+		private final ByteBuf payload;
+
+		private final int chunkSize;
+
+		/** Total number of chunks */
+		private final int count;
+
+		/** Number of chunks sent so far */
+		private int sent;
+
+		/** Number of chunks acknowledged so far */
+		private int acked;
+
+		private Transfer(EntityPlayerMP player, int id, ByteBuf payload) {
+			this.player = player;
+			this.id = id;
+			this.payload = payload;
+			this.chunkSize = Config.getChunkSize();
+			this.count = (payload.readableBytes() + this.chunkSize - 1) / this.chunkSize;
+		}
+
+		private void sendNextChunk() {
+			int offset = this.payload.readerIndex() + this.sent * this.chunkSize;
+			int length = Math.min(this.chunkSize, this.payload.writerIndex() - offset);
+			ByteBuf chunk = this.payload.retainedSlice(offset, length);
+			PacketDispatcher.sendTo(new WeaponRegistryChunkPacket(this.id, this.sent, this.count, this.payload.readableBytes(), chunk), this.player);
+			this.sent++;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package swordskillsapi.network.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.Config;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.server.RequestWeaponRegistryPacket;
+
+/**
+ * 
+ * Reassembles a registry sent as {@link WeaponRegistryChunkPacket}s, each of which is acknowledged so
+ * that the server may send more, and applies it as a single {@link WeaponRegistryPacket} once the last chunk
+ * has arrived. Any {@link WeaponRegistryDeltaPacket}s received in the meantime are held back until then,
+ * since they describe changes made after the registry being transferred was encoded.
+ * 
+ * Chunks are assembled and decoded on the network thread, so that only applying the finished
+ * registry is left to the main client thread.
+ *
+ */
+public class RegistryChunkReceiver
+{
+	/** Transfer currently being assembled on the network thread, or -1 if none */
+	private static int transferId = -1;
+
+	private static int nextIndex;
+
+	/** Registry assembled so far, or null once the transfer has failed, in which case its remaining chunks are only acknowledged */
+	private static ByteBuf assembled;
+
+	/** True on the main thread from the first chunk of a transfer until its last chunk has been processed */
+	private static boolean transferring;
+
+	private static final List<WeaponRegistryDeltaPacket> deferred = new ArrayList<WeaponRegistryDeltaPacket>();
+
+	/**
+	 * Adds the chunk to the registry being assembled, called from the network thread
+	 * @return True if the chunk belongs to the transfer in progress and should be acknowledged, even if that transfer has failed
+	 */
+	static synchronized boolean add(int id, int index, int count, int totalLength, byte[] bytes) {
+		if (index == 0) {
+			release();
+			transferId = id;
+			nextIndex = 0;
+			assembled = Unpooled.buffer(totalLength);
+		} else if (id != transferId || index != nextIndex) {
+			SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Ignoring unexpected registry chunk %d of transfer %d", index, id);
+			return false;
+		}
+		if (assembled != null && assembled.readableBytes() + bytes.length > totalLength) {
+			SwordSkillsApi.LOGGER.error("[WeaponRegistry] Registry transfer %d exceeded its declared length of %d bytes", id, totalLength);
+			assembled.release();
+			assembled = null;
+		}
+		if (assembled != null) {
+			assembled.writeBytes(bytes);
+		}
+		nextIndex = index + 1;
+		return true;
+	}
+
+	/**
+	 * Decodes the registry assembled from every chunk of the transfer, called from the network thread once its last chunk has been added
+	 * @return The decoded registry, or null if it could not be assembled or decoded
+	 */
+	@Nullable
+	static synchronized WeaponRegistryPacket complete() {
+		if (assembled == null) {
+			release();
+			return null;
+		}
+		WeaponRegistryPacket packet = new WeaponRegistryPacket();
+		try {
+			packet.fromBytes(assembled);
+			packet.prepare(Side.CLIENT);
+		} catch (RuntimeException e) {
+			SwordSkillsApi.LOGGER.error(e, "[WeaponRegistry] Failed to decode registry transfer %d", transferId);
+			return null;
+		} finally {
+			release();
+		}
+		return packet;
+	}
+
+	/**
+	 * Called from the main thread for each chunk in the order received; if the registry could not be assembled
+	 * from the chunks, the deltas held back are discarded and the entire registry is requested again
+	 * @param completed The registry decoded from the last chunk, or null if it could not be assembled
+	 */
+	static synchronized void apply(EntityPlayer player, int index, int count, @Nullable WeaponRegistryPacket completed) {
+		if (index == 0) {
+			transferring = true;
+			deferred.clear();
+		}
+		if (index == count - 1) {
+			transferring = false;
+			if (completed == null) {
+				SwordSkillsApi.LOGGER.warn("[WeaponRegistry] Registry transfer failed; discarding %d pending changes and requesting the entire registry", deferred.size());
+				deferred.clear();
+				PacketDispatcher.sendToServer(new RequestWeaponRegistryPacket(0L, -1L, Config.getNetworkFormat(), 0L));
+				return;
+			}
+			completed.process(player, Side.CLIENT);
+			deferred.forEach(delta -> delta.process(player, Side.CLIENT));
+			deferred.clear();
+		}
+	}
+
+	/**
+	 * Returns true if the delta was held back until the transfer in progress, if any, has completed
+	 */
+	static synchronized boolean defer(WeaponRegistryDeltaPacket delta) {
+		if (!transferring) {
+			return false;
+		}
+		deferred.add(delta);
+		return true;
+	}
+
+	/**
+	 * Discards any partially received registry, e.g. when disconnecting from the server
+	 */
+	public static synchronized void reset() {
+		release();
+		transferring = false;
+		deferred.clear();
+	}
+
+	private static void release() {
+		if (assembled != null) {
+			assembled.release();
+			assembled = null;
+		}
+		transferId = -1;
+	}
+}
@@ -0,0 +1,68 @@
+package swordskillsapi.network.client;
+
+import java.io.IOException;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.Config;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.client.RegistryDiskCache;
+import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.server.RequestWeaponRegistryPacket;
+
+/**
+ *
+ * Tells a client that the WeaponRegistry it has cached on disk for this server is identical to the
+ * server's current registry, so that it may be loaded instead of sending the entire registry again.
+ *
+ */
+public class UseCachedWeaponRegistryPacket extends AbstractClientMessage<UseCachedWeaponRegistryPacket>
+{
+	private long epoch;
+
+	private long version;
+
+	private long contentHash;
+
+	/** Registry loaded from the cache on the network thread, or null if it could not be loaded */
+	private WeaponRegistry registry;
+
+	public UseCachedWeaponRegistryPacket() {}
+
+	public UseCachedWeaponRegistryPacket(long epoch, long version, long contentHash) {
+		this.epoch = epoch;
+		this.version = version;
+		this.contentHash = contentHash;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.epoch = buffer.readLong();
+		this.version = buffer.readVarLong();
+		this.contentHash = buffer.readLong();
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		buffer.writeLong(this.epoch);
+		buffer.writeVarLong(this.version);
+		buffer.writeLong(this.contentHash);
+	}
+
+	@Override
+	protected void prepare(Side side) {
+		this.registry = RegistryDiskCache.load(this.contentHash);
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		if (this.registry == null) {
+			// Cache could not be used after all - request the entire registry instead
+			PacketDispatcher.sendToServer(new RequestWeaponRegistryPacket(this.epoch, -1L, Config.getNetworkFormat(), 0L));
+		} else {
+			WeaponRegistry.INSTANCE.copy(this.registry, this.epoch, this.version);
+		}
+	}
+}
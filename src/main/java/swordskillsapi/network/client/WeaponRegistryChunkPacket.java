@@ -0,0 +1,108 @@
+package swordskillsapi.network.client;
+
+import java.io.IOException;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.RegistryTransferManager;
+import swordskillsapi.network.server.AckWeaponRegistryChunkPacket;
+
+/**
+ *
+ * Sends one part of a registry too large for a single {@link WeaponRegistryPacket};
+ * see {@link RegistryTransferManager} and {@link RegistryChunkReceiver}
+ *
+ */
+public class WeaponRegistryChunkPacket extends AbstractClientMessage<WeaponRegistryChunkPacket>
+{
+	/** Upper limit for the size of an entire chunked registry, to guard against excessive memory use */
+	public static final int MAX_TOTAL_LENGTH = 64 * 1024 * 1024;
+
+	private int transferId;
+
+	private int index;
+
+	private int count;
+
+	private int totalLength;
+
+	/** Chunk to be written, released once written */
+	private ByteBuf chunk;
+
+	/** Chunk as received, until added to the registry being assembled */
+	private byte[] bytes;
+
+	/** Registry decoded upon receiving the last chunk */
+	private WeaponRegistryPacket completed;
+
+	public WeaponRegistryChunkPacket() {}
+
+	/**
+	 * @param chunk This part of the payload; the message takes ownership of this reference
+	 */
+	public WeaponRegistryChunkPacket(int transferId, int index, int count, int totalLength, ByteBuf chunk) {
+		this.transferId = transferId;
+		this.index = index;
+		this.count = count;
+		this.totalLength = totalLength;
+		this.chunk = chunk;
+	}
+
+	public int getTransferId() {
+		return this.transferId;
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.transferId = buffer.readVarInt();
+		this.index = buffer.readVarInt();
+		this.count = buffer.readVarInt();
+		this.totalLength = buffer.readVarInt();
+		if (this.totalLength > MAX_TOTAL_LENGTH) {
+			throw new IOException("Chunked WeaponRegistry exceeds maximum length: " + this.totalLength);
+		}
+		this.bytes = buffer.readByteArray(this.totalLength);
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		if (this.chunk == null) {
+			throw new IllegalStateException("WeaponRegistryChunkPacket may only be sent once");
+		}
+		try {
+			buffer.writeVarInt(this.transferId);
+			buffer.writeVarInt(this.index);
+			buffer.writeVarInt(this.count);
+			buffer.writeVarInt(this.totalLength);
+			buffer.writeVarInt(this.chunk.readableBytes());
+			buffer.writeBytes(this.chunk);
+		} finally {
+			this.chunk.release();
+			this.chunk = null;
+		}
+	}
+
+	@Override
+	protected void prepare(Side side) {
+		if (RegistryChunkReceiver.add(this.transferId, this.index, this.count, this.totalLength, this.bytes)) {
+			PacketDispatcher.sendToServer(new AckWeaponRegistryChunkPacket(this.transferId, this.index));
+			if (this.index == this.count - 1) {
+				this.completed = RegistryChunkReceiver.complete();
+			}
+		}
+		this.bytes = null;
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		RegistryChunkReceiver.apply(player, this.index, this.count, this.completed);
+	}
+}
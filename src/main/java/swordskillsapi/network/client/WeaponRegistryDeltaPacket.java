@@ -0,0 +1,66 @@
+package swordskillsapi.network.client;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+
+/**
+ *
+ * Sends all WeaponRegistry entries changed between two versions to a client that is already synchronized with the earlier version
+ *
+ */
+public class WeaponRegistryDeltaPacket extends AbstractClientMessage<WeaponRegistryDeltaPacket>
+{
+	private long epoch;
+
+	private long from;
+
+	private long to;
+
+	/** Map of each changed item to its new registry list, or null if no longer on any list */
+	private Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> entries;
+
+	private WeaponRegistryCodec.Format format;
+
+	public WeaponRegistryDeltaPacket() {}
+
+	public WeaponRegistryDeltaPacket(long epoch, long from, long to, Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> changes, WeaponRegistryCodec.Format format) {
+		this.epoch = epoch;
+		this.from = from;
+		this.to = to;
+		this.entries = new LinkedHashMap<ResourceLocation, WeaponRegistry.WeaponRegistryHolder>(changes);
+		this.format = format;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.epoch = buffer.readLong();
+		this.from = buffer.readVarLong();
+		this.to = buffer.readVarLong();
+		this.entries = WeaponRegistryCodec.readChanges(buffer, WeaponRegistry.INSTANCE);
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		buffer.writeLong(this.epoch);
+		buffer.writeVarLong(this.from);
+		buffer.writeVarLong(this.to);
+		WeaponRegistryCodec.writeChanges(buffer, this.entries, this.format);
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		if (RegistryChunkReceiver.defer(this)) {
+			return;
+		}
+		WeaponRegistry.INSTANCE.syncWeaponRegistryEntries(this.entries, this.epoch, this.from, this.to);
+	}
+}
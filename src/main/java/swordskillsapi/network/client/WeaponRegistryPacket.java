@@ -2,11 +2,16 @@ package swordskillsapi.network.client;
 
 import java.io.IOException;
 
+import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fml.relauncher.Side;
 import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+import swordskillsapi.client.RegistryDiskCache;
 import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+import swordskillsapi.network.RegistryPayloadCache;
 
 /**
  *
@@ -17,21 +22,62 @@ public class WeaponRegistryPacket extends AbstractClientMessage<WeaponRegistryPa
 {
 	private WeaponRegistry registry;
 
+	private long epoch;
+
+	private long version;
+
+	private WeaponRegistryCodec.Format format;
+
+	/**
+	 * Registry state to send; its encoded payload is only obtained from the {@link RegistryPayloadCache}
+	 * while writing, so that a message that is never written holds no reference to a pooled buffer
+	 */
+	private WeaponRegistrySnapshot snapshot;
+
 	public WeaponRegistryPacket() {}
 
+	/**
+	 * Sends the current state of {@link WeaponRegistry#INSTANCE}
+	 * @param format Format in which to send the registry, usually as negotiated by {@link WeaponRegistryCodec#negotiate}
+	 */
+	public WeaponRegistryPacket(WeaponRegistryCodec.Format format) {
+		this(format, WeaponRegistry.INSTANCE.getSnapshot());
+	}
+
+	/**
+	 * @param snapshot A snapshot of {@link WeaponRegistry#INSTANCE}
+	 */
+	public WeaponRegistryPacket(WeaponRegistryCodec.Format format, WeaponRegistrySnapshot snapshot) {
+		this.format = format;
+		this.snapshot = snapshot;
+	}
+
 	@Override
 	protected void read(PacketBuffer buffer) throws IOException {
+		epoch = buffer.readLong();
+		version = buffer.readVarLong();
 		registry = new WeaponRegistry();
-		registry.readFromBuffer(buffer);
+		registry.decode(buffer);
 	}
 
 	@Override
 	protected void write(PacketBuffer buffer) throws IOException {
-		WeaponRegistry.INSTANCE.writeToBuffer(buffer);
+		ByteBuf payload = RegistryPayloadCache.get(format, snapshot);
+		try {
+			buffer.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+		} finally {
+			payload.release();
+		}
+	}
+
+	@Override
+	protected void prepare(Side side) {
+		// Computing the content hash and writing the cache file need not hold up the main thread
+		RegistryDiskCache.save(registry.getSnapshot(), epoch, version);
 	}
 
 	@Override
 	protected void process(EntityPlayer player, Side side) {
-		WeaponRegistry.INSTANCE.copy(registry);
+		WeaponRegistry.INSTANCE.copy(registry, epoch, version);
 	}
 }
@@ -0,0 +1,72 @@
+package swordskillsapi.network.client;
+
+import java.io.IOException;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.Config;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.client.RegistryDiskCache;
+import swordskillsapi.network.AbstractMessage.AbstractClientMessage;
+import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.server.RequestWeaponRegistryPacket;
+
+/**
+ *
+ * Informs a client of the server's current WeaponRegistry version, sent when a client first logs in;
+ * the client requests only the changes it is missing, if any. A client rejoining a server that is still
+ * running first resumes from the last registry it received from that server, if it has kept one.
+ *
+ */
+public class WeaponRegistryVersionPacket extends AbstractClientMessage<WeaponRegistryVersionPacket>
+{
+	private long epoch;
+
+	private long version;
+
+	/** Content hash of the registry the client has cached for this server, or 0 if none */
+	private long cachedContentHash;
+
+	/** Last registry received from this server, loaded on the network thread if the client is not synchronized with it */
+	private RegistryDiskCache.SyncedRegistry lastSynced;
+
+	public WeaponRegistryVersionPacket() {}
+
+	public WeaponRegistryVersionPacket(WeaponRegistry registry) {
+		this.epoch = registry.getEpoch();
+		this.version = registry.getVersion();
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.epoch = buffer.readLong();
+		this.version = buffer.readLong();
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		buffer.writeLong(this.epoch);
+		buffer.writeLong(this.version);
+	}
+
+	@Override
+	protected void prepare(Side side) {
+		this.cachedContentHash = RegistryDiskCache.getCachedHash();
+		if (WeaponRegistry.INSTANCE.getSyncedVersion(this.epoch) < 0L) {
+			this.lastSynced = RegistryDiskCache.getLastSynced(this.epoch);
+		}
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		WeaponRegistry registry = WeaponRegistry.INSTANCE;
+		if (this.lastSynced != null && registry.getSyncedVersion(this.epoch) < 0L) {
+			registry.copy(this.lastSynced.getSnapshot(), this.epoch, this.lastSynced.getVersion());
+		}
+		long synced = registry.getSyncedVersion(this.epoch);
+		if (synced != this.version) {
+			PacketDispatcher.sendToServer(new RequestWeaponRegistryPacket(this.epoch, synced, Config.getNetworkFormat(), this.cachedContentHash));
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package swordskillsapi.network.server;
+
+import java.io.IOException;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.network.AbstractMessage.AbstractServerMessage;
+import swordskillsapi.network.RegistryTransferManager;
+
+/**
+ *
+ * Acknowledges receipt of a registry chunk, allowing the server to send further chunks
+ *
+ */
+public class AckWeaponRegistryChunkPacket extends AbstractServerMessage<AckWeaponRegistryChunkPacket>
+{
+	private int transferId;
+
+	private int index;
+
+	public AckWeaponRegistryChunkPacket() {}
+
+	public AckWeaponRegistryChunkPacket(int transferId, int index) {
+		this.transferId = transferId;
+		this.index = index;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.transferId = buffer.readVarInt();
+		this.index = buffer.readVarInt();
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		buffer.writeVarInt(this.transferId);
+		buffer.writeVarInt(this.index);
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		RegistryTransferManager.onChunkAcknowledged((EntityPlayerMP) player, this.transferId, this.index);
+	}
+}
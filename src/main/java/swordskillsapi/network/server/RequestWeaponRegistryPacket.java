@@ -0,0 +1,89 @@
+package swordskillsapi.network.server;
+
+import java.io.IOException;
+import java.util.Map;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec;
+import swordskillsapi.api.item.WeaponRegistrySnapshot;
+import swordskillsapi.network.AbstractMessage.AbstractServerMessage;
+import swordskillsapi.network.PacketDispatcher;
+import swordskillsapi.network.RegistryTransferManager;
+import swordskillsapi.network.client.UseCachedWeaponRegistryPacket;
+import swordskillsapi.network.client.WeaponRegistryDeltaPacket;
+
+/**
+ *
+ * Requests the changes to the WeaponRegistry made since the version the client last synchronized with;
+ * the server replies with only those changes when its journal still covers them, with permission to use
+ * the client's cached copy of the registry if its content hash matches, or else with the entire registry.
+ *
+ */
+public class RequestWeaponRegistryPacket extends AbstractServerMessage<RequestWeaponRegistryPacket>
+{
+	private long epoch;
+
+	/** Version the client is synchronized with, or -1 if it requires the entire registry */
+	private long version;
+
+	/** Most compact format the client is willing to receive */
+	private WeaponRegistryCodec.Format format;
+
+	/** The client's {@link WeaponRegistryCodec#computeItemIdMapHash()}, for deciding whether numeric item ids may be used */
+	private long itemIdMapHash;
+
+	/** Content hash of the registry the client has cached for this server, or 0 if none */
+	private long cachedContentHash;
+
+	public RequestWeaponRegistryPacket() {}
+
+	public RequestWeaponRegistryPacket(long epoch, long version, WeaponRegistryCodec.Format format, long cachedContentHash) {
+		this.epoch = epoch;
+		this.version = version;
+		this.format = format;
+		this.itemIdMapHash = (format == WeaponRegistryCodec.Format.ITEM_IDS ? WeaponRegistryCodec.computeItemIdMapHash() : 0L);
+		this.cachedContentHash = cachedContentHash;
+	}
+
+	@Override
+	protected void read(PacketBuffer buffer) throws IOException {
+		this.epoch = buffer.readLong();
+		this.version = buffer.readLong();
+		this.format = WeaponRegistryCodec.Format.fromId(buffer.readUnsignedByte());
+		this.itemIdMapHash = buffer.readLong();
+		this.cachedContentHash = buffer.readLong();
+	}
+
+	@Override
+	protected void write(PacketBuffer buffer) throws IOException {
+		buffer.writeLong(this.epoch);
+		buffer.writeLong(this.version);
+		buffer.writeByte(this.format.ordinal());
+		buffer.writeLong(this.itemIdMapHash);
+		buffer.writeLong(this.cachedContentHash);
+	}
+
+	@Override
+	protected void process(EntityPlayer player, Side side) {
+		WeaponRegistry registry = WeaponRegistry.INSTANCE;
+		WeaponRegistryCodec.Format format = WeaponRegistryCodec.negotiate(this.format, this.itemIdMapHash);
+		Map<ResourceLocation, WeaponRegistry.WeaponRegistryHolder> changes = null;
+		if (this.epoch == registry.getEpoch() && this.version >= 0) {
+			changes = registry.getChangesSince(this.version);
+		}
+		WeaponRegistrySnapshot snapshot = registry.getSnapshot();
+		// Sending every entry is cheaper than a delta that is larger than the registry itself
+		if (changes != null && changes.size() <= snapshot.size()) {
+			PacketDispatcher.sendTo(new WeaponRegistryDeltaPacket(registry.getEpoch(), this.version, snapshot.getVersion(), changes, format), (EntityPlayerMP) player);
+		} else if (this.cachedContentHash != 0L && this.cachedContentHash == snapshot.getContentHash()) {
+			PacketDispatcher.sendTo(new UseCachedWeaponRegistryPacket(registry.getEpoch(), snapshot.getVersion(), this.cachedContentHash), (EntityPlayerMP) player);
+		} else {
+			RegistryTransferManager.send((EntityPlayerMP) player, format);
+		}
+	}
+}
@@ -0,0 +1,450 @@
+package swordskillsapi.network;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.CommonProxy;
+import swordskillsapi.Config;
+import swordskillsapi.SwordSkillsApi;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistry.WeaponRegistryHolder;
+import swordskillsapi.event.ModEventHandler;
+import swordskillsapi.metrics.RegistryMetrics;
+import swordskillsapi.network.client.WeaponRegistryChunkPacket;
+import swordskillsapi.network.client.WeaponRegistryVersionPacket;
+import swordskillsapi.network.server.AckWeaponRegistryChunkPacket;
+import swordskillsapi.network.server.RequestWeaponRegistryPacket;
+
+/**
+ *
+ * Headless load simulation of WeaponRegistry synchronization, for measuring login storms and registry churn
+ * without a Minecraft server or network: simulated server ticks drive {@link ModEventHandler}, {@link WeaponRegistry}
+ * and {@link PacketDispatcher} exactly as the server would, while an in-process {@link MessageTransport} encodes
+ * each message sent, delivers it to a simulated client, and counts the bytes and time spent.
+ *
+ * Run via 'gradlew simulate', optionally with -PsimulationArgs="..." giving any of the following arguments, shown with their defaults:
+ * players=500 logins_per_tick=500 changes_per_second=20 resyncs_per_minute=0 entries=2000 seconds=60 config=&lt;file&gt; log=false
+ * Without a config file, every setting has its default value.
+ *
+ * The registry is filled with every vanilla item, spread across the lists, and padded to the requested number of entries with
+ * names of items that are not installed, which only the network format can add, as in the benchmarks. Each change moves a random
+ * vanilla item to another list, so that every change is committed and sent to clients.
+ *
+ * Simulated clients decode every message but only answer those requiring a reply: each WeaponRegistryVersionPacket
+ * with a request for the entire registry, as from a client with no cached copy, and each chunk with its acknowledgement.
+ * Replies are processed by the server on the following tick, as if received over the network. Main thread time excludes
+ * the time spent by the simulated clients, but includes encoding, which the network channel also performs on the caller's thread.
+ *
+ */
+public final class LoadSimulation
+{
+	private static final int TICKS_PER_SECOND = 20;
+
+	/** Class rule toggled between the allowed and forbidden weapon lists to force every client to resynchronize */
+	private static final String RESYNC_RULE = WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe";
+
+	private int players = 500;
+
+	private int loginsPerTick = 500;
+
+	private int changesPerSecond = 20;
+
+	private int resyncsPerMinute = 0;
+
+	private int entries = 2000;
+
+	private int seconds = 60;
+
+	private File configFile = null;
+
+	private boolean log = false;
+
+	private final ModEventHandler handler = new ModEventHandler();
+
+	private final SimulatedTransport transport = new SimulatedTransport();
+
+	private final Random random = new Random(0L);
+
+	/** Players yet to log in, created in advance so that creating them is not counted as server time */
+	private final List<EntityPlayerMP> waiting = new ArrayList<EntityPlayerMP>();
+
+	private final List<EntityPlayerMP> loggedIn = new ArrayList<EntityPlayerMP>();
+
+	/** Registered items on the registry lists, each of which may be moved to another list by a change */
+	private final List<ResourceLocation> items = new ArrayList<ResourceLocation>();
+
+	/** Index of the list each of {@link #items} is currently on */
+	private int[] itemLists;
+
+	private boolean resyncRuleAllowed;
+
+	/** Main thread time, encoding time and bytes sent for each tick */
+	private long[] tickNanos, encodeNanos, tickBytes;
+
+	public static void main(String[] args) throws Exception {
+		LoadSimulation simulation = new LoadSimulation();
+		for (String arg : args) {
+			simulation.parse(arg);
+		}
+		simulation.run();
+		simulation.report().forEach(System.out::println);
+	}
+
+	private void parse(String arg) {
+		int i = arg.indexOf('=');
+		String key = (i < 0 ? arg : arg.substring(0, i));
+		String value = (i < 0 ? "" : arg.substring(i + 1));
+		try {
+			switch (key) {
+			case "players": this.players = Integer.parseInt(value); break;
+			case "logins_per_tick": this.loginsPerTick = Math.max(1, Integer.parseInt(value)); break;
+			case "changes_per_second": this.changesPerSecond = Integer.parseInt(value); break;
+			case "resyncs_per_minute": this.resyncsPerMinute = Integer.parseInt(value); break;
+			case "entries": this.entries = Math.max(1, Integer.parseInt(value)); break;
+			case "seconds": this.seconds = Math.max(1, Integer.parseInt(value)); break;
+			case "config": this.configFile = new File(value); break;
+			case "log": this.log = Boolean.parseBoolean(value); break;
+			default: throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number in argument " + arg);
+		}
+	}
+
+	public void run() throws IOException, ReflectiveOperationException {
+		this.setUp();
+		int ticks = this.seconds * TICKS_PER_SECOND;
+		this.tickNanos = new long[ticks];
+		this.encodeNanos = new long[ticks];
+		this.tickBytes = new long[ticks];
+		double changes = 0.0D;
+		double resyncs = 0.0D;
+		try {
+			for (int tick = 0; tick < ticks; tick++) {
+				this.transport.beginTick();
+				long start = System.nanoTime();
+				this.handler.onServerTick(new TickEvent.ServerTickEvent(TickEvent.Phase.START));
+				for (int i = 0; i < this.loginsPerTick && !this.waiting.isEmpty(); i++) {
+					this.login();
+				}
+				for (changes += (double) this.changesPerSecond / TICKS_PER_SECOND; changes >= 1.0D; changes -= 1.0D) {
+					this.changeEntry();
+				}
+				for (resyncs += (double) this.resyncsPerMinute / (60 * TICKS_PER_SECOND); resyncs >= 1.0D; resyncs -= 1.0D) {
+					this.toggleResyncRule();
+				}
+				this.handler.onServerTick(new TickEvent.ServerTickEvent(TickEvent.Phase.END));
+				this.tickNanos[tick] = System.nanoTime() - start - this.transport.tickClientNanos;
+				this.encodeNanos[tick] = this.transport.tickEncodeNanos;
+				this.tickBytes[tick] = this.transport.tickBytes;
+			}
+		} finally {
+			this.tearDown();
+		}
+	}
+
+	private void setUp() throws IOException, ReflectiveOperationException {
+		Bootstrap.register();
+		File file = this.configFile;
+		if (file == null) {
+			file = File.createTempFile(SwordSkillsApi.ID, ".cfg");
+			file.deleteOnExit();
+		}
+		Config.load(file);
+		if (!this.log) {
+			SwordSkillsApi.LOGGER.disable();
+		}
+		if (SwordSkillsApi.proxy == null) {
+			// Replies are received with a server-side MessageContext, from which the common proxy finds the player
+			SwordSkillsApi.proxy = new CommonProxy();
+		}
+		RegistryMetrics.setEnabled(true);
+		RegistryMetrics.reset();
+		PacketDispatcher.initialize();
+		PacketDispatcher.setTransport(this.transport);
+		this.fillRegistry();
+		WeaponRegistry.INSTANCE.onServerStart();
+		for (int i = 0; i < this.players; i++) {
+			this.waiting.add(createPlayer(i + 1));
+		}
+	}
+
+	private void tearDown() {
+		for (EntityPlayerMP player : this.loggedIn) {
+			this.handler.onPlayerLoggedOut(new PlayerLoggedOutEvent(player));
+			this.transport.connected.remove(player);
+		}
+		WeaponRegistry.INSTANCE.onServerStop();
+		AbstractMessage.clearQueue(Side.SERVER);
+		RegistryTransferManager.clear();
+		PacketDispatcher.clear();
+		PacketDispatcher.setTransport(null);
+	}
+
+	/**
+	 * Spreads the registered items, then as many names of uninstalled items as needed to reach the number of entries, across
+	 * all lists, in the same format as {@link WeaponRegistry#writeToBuffer(PacketBuffer)}, and reads them into the registry
+	 */
+	private void fillRegistry() {
+		for (ResourceLocation location : Item.REGISTRY.getKeys()) {
+			if (Item.REGISTRY.getObject(location) != Items.AIR && this.items.size() < this.entries) {
+				this.items.add(location);
+			}
+		}
+		Collections.sort(this.items);
+		int listCount = WeaponRegistry.INSTANCE.getRegistries().size();
+		List<List<String>> lists = new ArrayList<List<String>>();
+		for (int i = 0; i < listCount; i++) {
+			lists.add(new ArrayList<String>());
+		}
+		this.itemLists = new int[this.items.size()];
+		for (int i = 0; i < this.entries; i++) {
+			String name = (i < this.items.size() ? this.items.get(i).toString() : "simulation:item_" + i);
+			lists.get(i % listCount).add(name);
+			if (i < this.items.size()) {
+				this.itemLists[i] = i % listCount;
+			}
+		}
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		try {
+			for (List<String> list : lists) {
+				buffer.writeInt(list.size());
+				list.forEach(buffer::writeString);
+			}
+			WeaponRegistry.INSTANCE.readFromBuffer(buffer);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	private void login() {
+		EntityPlayerMP player = this.waiting.remove(this.waiting.size() - 1);
+		this.loggedIn.add(player);
+		this.transport.connected.add(player);
+		this.handler.onPlayerLoggedIn(new PlayerLoggedInEvent(player));
+	}
+
+	/**
+	 * Moves a random registered item to a different list, as a single change like that of a command
+	 */
+	private void changeEntry() {
+		List<WeaponRegistryHolder> lists = WeaponRegistry.INSTANCE.getRegistries();
+		int i = this.random.nextInt(this.items.size());
+		int list = (this.itemLists[i] + 1 + this.random.nextInt(lists.size() - 1)) % lists.size();
+		this.itemLists[i] = list;
+		WeaponRegistry.INSTANCE.batch("Simulation").add(lists.get(list), this.items.get(i).toString(), true).commit();
+	}
+
+	private void toggleResyncRule() {
+		this.resyncRuleAllowed = !this.resyncRuleAllowed;
+		WeaponRegistry.Batch batch = WeaponRegistry.INSTANCE.batch("Simulation");
+		(this.resyncRuleAllowed ? batch.allowWeapon(RESYNC_RULE, true) : batch.forbidWeapon(RESYNC_RULE, true)).commit();
+	}
+
+	/**
+	 * Returns a player without any world or network connection, having been created without running its constructor;
+	 * only its identity is used, as the key for queued messages and transfers, along with a connection handler
+	 * referring back to it, so that its replies can be received in a MessageContext as if from the network
+	 */
+	private static EntityPlayerMP createPlayer(int id) throws ReflectiveOperationException {
+		EntityPlayerMP player = allocate(EntityPlayerMP.class);
+		player.setEntityId(id);
+		player.setUniqueId(new UUID(0L, id));
+		player.connection = allocate(NetHandlerPlayServer.class);
+		player.connection.player = player;
+		return player;
+	}
+
+	/**
+	 * Returns a new instance of the class without running any constructor, for game objects that require a running server
+	 */
+	private static <T> T allocate(Class<T> type) throws ReflectiveOperationException {
+		Class<?> clazz = Class.forName("sun.misc.Unsafe");
+		Field field = clazz.getDeclaredField("theUnsafe");
+		field.setAccessible(true);
+		Method allocateInstance = clazz.getMethod("allocateInstance", Class.class);
+		return type.cast(allocateInstance.invoke(field.get(null), type));
+	}
+
+	public List<String> report() {
+		List<String> lines = new ArrayList<String>();
+		lines.add(String.format("simulation: players=%d logins_per_tick=%d changes_per_second=%d resyncs_per_minute=%d entries=%d seconds=%d",
+				this.players, this.loginsPerTick, this.changesPerSecond, this.resyncsPerMinute, this.entries, this.seconds));
+		lines.add(String.format("config: batching=%s format=%s chunk_size=%d chunk_window=%d journal=%d",
+				Config.isMessageBatchingEnabled(), Config.getNetworkFormat(), Config.getChunkSize(), Config.getChunkWindow(), Config.getJournalSize()));
+		lines.add(String.format("server->client: packets=%d messages=%d bytes=%d", this.transport.packets, this.transport.messages, this.transport.bytes));
+		lines.add(String.format("client->server: messages=%d bytes=%d", this.transport.replies, this.transport.replyBytes));
+		this.transport.packetStats.forEach((name, stats) -> lines.add(String.format("packets.%s: count=%d bytes=%d", name, stats[0], stats[1])));
+		this.transport.messageCounts.forEach((name, count) -> lines.add(String.format("messages.%s: count=%d", name, count[0])));
+		lines.add("tick.main_thread.us: " + describe(this.tickNanos, 1000L));
+		lines.add("tick.encode.us: " + describe(this.encodeNanos, 1000L));
+		lines.add("tick.bytes: " + describe(this.tickBytes, 1L));
+		int busiest = 0;
+		for (int i = 1; i < this.tickNanos.length; i++) {
+			if (this.tickNanos[i] > this.tickNanos[busiest]) {
+				busiest = i;
+			}
+		}
+		lines.add(String.format("tick.busiest: tick=%d main_thread.us=%d encode.us=%d bytes=%d",
+				busiest, this.tickNanos[busiest] / 1000L, this.encodeNanos[busiest] / 1000L, this.tickBytes[busiest]));
+		RegistryMetrics.report().stream().filter(line -> line.startsWith("registry:")).forEach(lines::add);
+		return lines;
+	}
+
+	private static String describe(long[] values, long unit) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		long sum = 0L;
+		for (long value : sorted) {
+			sum += value;
+		}
+		return String.format("mean=%.1f p50=%d p99=%d max=%d", (double) sum / sorted.length / unit,
+				sorted[sorted.length / 2] / unit, sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99D) - 1)] / unit, sorted[sorted.length - 1] / unit);
+	}
+
+	/**
+	 * Encodes every message as the network channel would, then decodes it for the simulated client of each recipient
+	 */
+	private static final class SimulatedTransport implements MessageTransport
+	{
+		private final Set<EntityPlayerMP> connected = new LinkedHashSet<EntityPlayerMP>();
+
+		/** Count and bytes of each type of packet sent, i.e. of bundles rather than the messages within them */
+		private final Map<String, long[]> packetStats = new TreeMap<String, long[]>();
+
+		/** Count of each type of message delivered, including those within bundles */
+		private final Map<String, long[]> messageCounts = new TreeMap<String, long[]>();
+
+		private long packets, messages, bytes, replies, replyBytes;
+
+		private long tickEncodeNanos, tickClientNanos, tickBytes;
+
+		private void beginTick() {
+			this.tickEncodeNanos = 0L;
+			this.tickClientNanos = 0L;
+			this.tickBytes = 0L;
+		}
+
+		@Override
+		public void sendTo(IMessage message, EntityPlayerMP player) {
+			this.send(message, Collections.singletonList(player));
+		}
+
+		@Override
+		public void sendToAll(IMessage message) {
+			this.send(message, new ArrayList<EntityPlayerMP>(this.connected));
+		}
+
+		/**
+		 * Encodes the message once and delivers it to each player
+		 */
+		private void send(IMessage message, Collection<EntityPlayerMP> players) {
+			long start = System.nanoTime();
+			ByteBuf buffer = Unpooled.buffer();
+			try {
+				message.toBytes(buffer);
+				long encoded = System.nanoTime();
+				this.tickEncodeNanos += encoded - start;
+				for (EntityPlayerMP player : players) {
+					if (this.connected.contains(player)) {
+						int size = buffer.readableBytes();
+						this.packets++;
+						this.bytes += size;
+						this.tickBytes += size;
+						long[] stats = this.packetStats.computeIfAbsent(message.getClass().getSimpleName(), k -> new long[2]);
+						stats[0]++;
+						stats[1] += size;
+						this.receive(player, decode(message.getClass(), buffer.duplicate()));
+					}
+				}
+				this.tickClientNanos += System.nanoTime() - encoded;
+			} finally {
+				buffer.release();
+			}
+		}
+
+		private void receive(EntityPlayerMP player, IMessage message) {
+			if (message instanceof MessageBundle) {
+				((MessageBundle) message).getMessages().forEach(m -> this.receive(player, m));
+				return;
+			}
+			this.messages++;
+			this.messageCounts.computeIfAbsent(message.getClass().getSimpleName(), k -> new long[1])[0]++;
+			if (message instanceof WeaponRegistryVersionPacket) {
+				this.reply(player, new RequestWeaponRegistryPacket(WeaponRegistry.INSTANCE.getEpoch(), -1L, Config.getNetworkFormat(), 0L));
+			} else if (message instanceof WeaponRegistryChunkPacket) {
+				WeaponRegistryChunkPacket chunk = (WeaponRegistryChunkPacket) message;
+				this.reply(player, new AckWeaponRegistryChunkPacket(chunk.getTransferId(), chunk.getIndex()));
+			}
+		}
+
+		/**
+		 * Sends the message from the player's simulated client to the server, where it is received exactly
+		 * as from the network, and so processed on the next tick
+		 */
+		private void reply(EntityPlayerMP player, AbstractMessage<?> message) {
+			ByteBuf buffer = Unpooled.buffer();
+			try {
+				message.toBytes(buffer);
+				this.replies++;
+				this.replyBytes += buffer.readableBytes();
+				((AbstractMessage<?>) decode(message.getClass(), buffer)).receive(new MessageContext(player.connection, Side.SERVER));
+			} finally {
+				buffer.release();
+			}
+		}
+
+		private static IMessage decode(Class<? extends IMessage> type, ByteBuf buffer) {
+			try {
+				IMessage message = type.newInstance();
+				message.fromBytes(buffer);
+				return message;
+			} catch (ReflectiveOperationException e) {
+				throw new RuntimeException("Could not create message " + type.getSimpleName(), e);
+			}
+		}
+
+		@Override
+		public Collection<EntityPlayerMP> getPlayers() {
+			return Collections.unmodifiableSet(this.connected);
+		}
+
+		@Override
+		public boolean isConnected(EntityPlayerMP player) {
+			return this.connected.contains(player);
+		}
+
+		@Override
+		public boolean isLocal(EntityPlayerMP player) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package swordskillsapi.api.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.minecraft.util.ResourceLocation;
+
+public class ItemPatternTest
+{
+	private static final ResourceLocation IRON_SWORD = new ResourceLocation("minecraft:iron_sword");
+
+	private static final ResourceLocation MOD_KATANA = new ResourceLocation("othermod:iron_katana");
+
+	@Test
+	public void isPattern() {
+		assertTrue(ItemPattern.isPattern("modid:*"));
+		assertTrue(ItemPattern.isPattern("/modid:.+/"));
+		assertFalse(ItemPattern.isPattern("modid:sword"));
+		assertFalse(ItemPattern.isPattern("/"));
+	}
+
+	@Test
+	public void namespace() {
+		ItemPattern pattern = ItemPattern.compile("minecraft:*");
+		assertTrue(pattern.matches(IRON_SWORD));
+		assertFalse(pattern.matches(MOD_KATANA));
+	}
+
+	@Test
+	public void everything() {
+		ItemPattern pattern = ItemPattern.compile("*:*");
+		assertTrue(pattern.matches(IRON_SWORD));
+		assertTrue(pattern.matches(MOD_KATANA));
+		ItemPattern.Matcher matcher = new ItemPattern.Matcher(Arrays.asList(pattern));
+		assertEquals(Arrays.asList(0), match(matcher, IRON_SWORD));
+	}
+
+	@Test
+	public void prefixAndSuffix() {
+		assertTrue(ItemPattern.compile("minecraft:iron_*").matches(IRON_SWORD));
+		assertFalse(ItemPattern.compile("minecraft:iron_*").matches(MOD_KATANA));
+		assertTrue(ItemPattern.compile("*:iron_*").matches(MOD_KATANA));
+		assertTrue(ItemPattern.compile("othermod:*_katana").matches(MOD_KATANA));
+		assertFalse(ItemPattern.compile("othermod:*_katana").matches(IRON_SWORD));
+		assertTrue(ItemPattern.compile("Minecraft:*_SWORD").matches(IRON_SWORD));
+	}
+
+	@Test
+	public void glob() {
+		assertTrue(ItemPattern.compile("*:*_kat*").matches(MOD_KATANA));
+		assertTrue(ItemPattern.compile("other*:iron_*").matches(MOD_KATANA));
+		assertFalse(ItemPattern.compile("*:*_kat*").matches(IRON_SWORD));
+		// Wildcards do not span the namespace separator
+		assertFalse(ItemPattern.compile("minecraft*sword:*").matches(IRON_SWORD));
+	}
+
+	@Test
+	public void regex() {
+		ItemPattern pattern = ItemPattern.compile("/[a-z]+:iron_(sword|katana)/");
+		assertTrue(pattern.matches(IRON_SWORD));
+		assertTrue(pattern.matches(MOD_KATANA));
+		assertFalse(ItemPattern.compile("/iron_sword/").matches(IRON_SWORD));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidRegex() {
+		ItemPattern.compile("/[/");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingNamespace() {
+		ItemPattern.compile("*_sword");
+	}
+
+	@Test
+	public void matcherReportsEveryMatchInOrder() {
+		List<ItemPattern> patterns = Arrays.asList(
+				ItemPattern.compile("othermod:*"),
+				ItemPattern.compile("minecraft:*_sword"),
+				ItemPattern.compile("/.*:iron_.*/"),
+				ItemPattern.compile("*:*_kat*"),
+				ItemPattern.compile("minecraft:*"));
+		ItemPattern.Matcher matcher = new ItemPattern.Matcher(patterns);
+		assertEquals(Arrays.asList(1, 2, 4), match(matcher, IRON_SWORD));
+		assertEquals(Arrays.asList(0, 2, 3), match(matcher, MOD_KATANA));
+		assertEquals(Arrays.asList(), match(matcher, new ResourceLocation("thirdmod:club")));
+	}
+
+	@Test
+	public void matcherKeepsBackreferences() {
+		ResourceLocation doubled = new ResourceLocation("thirdmod:aardvark");
+		List<ItemPattern> patterns = Arrays.asList(
+				ItemPattern.compile("/[a-z]+:(iron)_.*/"),
+				ItemPattern.compile("/[a-z]+:(.)\\1.*/"),
+				ItemPattern.compile("/(?<mod>[a-z]+):\\k<mod>_.*/"));
+		ItemPattern.Matcher matcher = new ItemPattern.Matcher(patterns);
+		assertEquals(Arrays.asList(1), match(matcher, doubled));
+		assertEquals(Arrays.asList(0), match(matcher, IRON_SWORD));
+		assertEquals(Arrays.asList(2), match(matcher, new ResourceLocation("othermod:othermod_club")));
+	}
+
+	private static List<Integer> match(ItemPattern.Matcher matcher, ResourceLocation location) {
+		List<Integer> matches = new ArrayList<Integer>();
+		matcher.match(location, matches::add);
+		return matches;
+	}
+}
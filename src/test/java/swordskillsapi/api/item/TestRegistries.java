@@ -0,0 +1,100 @@
+package swordskillsapi.api.item;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.item.Item;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.Config;
+import swordskillsapi.SwordSkillsApi;
+
+/**
+ * 
+ * Shared setup for the unit tests of every package: bootstraps the vanilla registries so that real
+ * items are available without a running game, and builds registries from a mix of real and unknown items.
+ *
+ */
+public final class TestRegistries
+{
+	private static boolean bootstrapped;
+
+	private TestRegistries() {}
+
+	/**
+	 * Registers all vanilla blocks and items and loads the default config, once per test run, and silences registry logging
+	 */
+	public static synchronized void bootstrap() {
+		if (!bootstrapped) {
+			Bootstrap.register();
+			try {
+				File file = File.createTempFile(SwordSkillsApi.ID, ".cfg");
+				file.deleteOnExit();
+				Config.load(file);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			SwordSkillsApi.LOGGER.disable();
+			bootstrapped = true;
+		}
+	}
+
+	public static Item item(String name) {
+		Item item = Item.REGISTRY.getObject(new ResourceLocation(name));
+		if (item == null) {
+			throw new IllegalArgumentException("No such item: " + name);
+		}
+		return item;
+	}
+
+	/**
+	 * Returns a registry with entries on every list, including names of items that are not installed,
+	 * which can only be added via the network format, along with a class rule and attribute values
+	 */
+	public static WeaponRegistry create() {
+		String[][] lists = {
+			{ "minecraft:stick", "othermod:katana" },
+			{ "minecraft:bow", "othermod:club", "thirdmod:flail" },
+			{ "minecraft:iron_sword" },
+			{ "minecraft:wooden_axe", "othermod:staff" }
+		};
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		for (String[] list : lists) {
+			buffer.writeInt(list.length);
+			for (String name : list) {
+				buffer.writeString(name);
+			}
+		}
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.readFromBuffer(buffer);
+		buffer.release();
+		registry.batch("Test")
+				.allowWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe", false)
+				.setAttribute("minecraft:stick", "reach", 4.5F)
+				.setAttribute("minecraft:bow", "reach", 2.0F)
+				.setAttribute("minecraft:stick", "weight", 1.25F)
+				.commit();
+		return registry;
+	}
+
+	/**
+	 * Returns a registry with entries on every list, a class rule and attribute values, all of installed items,
+	 * i.e. one that could have been built entirely from commands, the config or IMC messages
+	 */
+	public static WeaponRegistry createInstalled() {
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.batch("Test")
+				.allowSword("minecraft:stick", false)
+				.allowWeapon("minecraft:bow", false)
+				.allowWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe", false)
+				.forbidSword("minecraft:iron_sword", false)
+				.forbidWeapon("minecraft:wooden_axe", false)
+				.setAttributes("minecraft:stick test.reach=4.5 test.weight=0.1")
+				.setAttribute("minecraft:bow", "test.reach", 2.0F)
+				.commit();
+		return registry;
+	}
+}
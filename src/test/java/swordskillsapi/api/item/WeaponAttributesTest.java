@@ -0,0 +1,34 @@
+package swordskillsapi.api.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static swordskillsapi.api.item.TestRegistries.item;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class WeaponAttributesTest
+{
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@Test
+	public void setAndRemoveValues() {
+		WeaponRegistry registry = new WeaponRegistry();
+		WeaponAttribute reach = WeaponAttribute.get("test.reach");
+		WeaponRegistry.Batch batch = registry.batch("Test")
+				.setAttributes("minecraft:stick test.reach=4.5 test.weight=2")
+				.setAttribute("minecraft:*", "test.reach", 1.0F)
+				.setAttribute("othermod:not_installed", "test.reach", 1.0F);
+		assertEquals(2, batch.commit());
+		assertEquals(2, batch.getSkipped());
+		assertEquals(4.5F, registry.getAttribute(item("minecraft:stick"), reach), 0.0F);
+		assertTrue(Float.isNaN(registry.getAttribute(item("minecraft:bow"), reach)));
+		assertEquals(3.0F, registry.getAttribute(item("minecraft:bow"), reach, 3.0F), 0.0F);
+		registry.batch("Test").removeAttribute("minecraft:stick", "test.reach").commit();
+		assertTrue(Float.isNaN(registry.getAttribute(item("minecraft:stick"), reach)));
+		assertEquals(2.0F, registry.getAttribute(item("minecraft:stick"), WeaponAttribute.get("test.weight")), 0.0F);
+	}
+}
@@ -0,0 +1,106 @@
+package swordskillsapi.api.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static swordskillsapi.api.item.TestRegistries.item;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class WeaponRegistryBatchTest
+{
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@Test
+	public void addsEntriesAsSingleChange() {
+		WeaponRegistry registry = new WeaponRegistry();
+		long version = registry.getVersion();
+		WeaponRegistry.Batch batch = registry.batch("Test")
+				.allowSword("minecraft:stick", false)
+				.allowWeapon("minecraft:bow", false)
+				.forbidWeapon("minecraft:iron_sword", false);
+		assertEquals(3, batch.commit());
+		assertEquals(3, batch.getAdded());
+		assertEquals(version + 1, registry.getVersion());
+		assertTrue(registry.isSword(item("minecraft:stick")));
+		assertTrue(registry.isWeapon(item("minecraft:stick")));
+		assertFalse(registry.isSword(item("minecraft:bow")));
+		assertTrue(registry.isWeapon(item("minecraft:bow")));
+		assertFalse(registry.isSword(item("minecraft:iron_sword")));
+		assertFalse(registry.isWeapon(item("minecraft:iron_sword")));
+		assertTrue(registry.isWeaponForbidden(item("minecraft:iron_sword")));
+	}
+
+	@Test
+	public void conflictsRequireOverride() {
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.batch("Test").allowSword("minecraft:stick", false).commit();
+		WeaponRegistry.Batch rejected = registry.batch("Test").forbidSword("minecraft:stick", false);
+		assertEquals(0, rejected.commit());
+		assertEquals(1, rejected.getSkipped());
+		assertTrue(registry.isSword(item("minecraft:stick")));
+		WeaponRegistry.Batch moved = registry.batch("Test").forbidSword("minecraft:stick", true);
+		assertEquals(1, moved.commit());
+		assertEquals(1, moved.getMoved());
+		assertFalse(registry.isSword(item("minecraft:stick")));
+		assertTrue(registry.getSnapshot().getItems(registry.getRegistryByKey("allow_sword")).isEmpty());
+	}
+
+	@Test
+	public void unchangedAndMissingEntries() {
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.batch("Test").allowWeapon("minecraft:bow", false).commit();
+		long version = registry.getVersion();
+		WeaponRegistry.Batch batch = registry.batch("Test")
+				.allowWeapon("minecraft:bow", false)
+				.allowWeapon("othermod:not_installed", false);
+		assertEquals(0, batch.commit());
+		assertEquals(1, batch.getUnchanged());
+		assertEquals(1, batch.getSkipped());
+		assertEquals(version, registry.getVersion());
+	}
+
+	@Test
+	public void patternsExpandToMatchingItems() {
+		WeaponRegistry registry = new WeaponRegistry();
+		WeaponRegistry.Batch batch = registry.batch("Test").allowWeapon("minecraft:*_hoe", false);
+		assertEquals(5, batch.commit());
+		assertTrue(registry.isWeapon(item("minecraft:diamond_hoe")));
+		assertFalse(registry.isWeapon(item("minecraft:stick")));
+	}
+
+	@Test
+	public void classRulesApplyToSubclasses() {
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.batch("Test").allowWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe", false).commit();
+		assertTrue(registry.isWeapon(item("minecraft:iron_hoe")));
+		WeaponRegistry.Batch rejected = registry.batch("Test").forbidWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe", false);
+		assertEquals(0, rejected.commit());
+		assertEquals(1, rejected.getSkipped());
+		// Forbidding an item by name takes precedence over an allowing class rule
+		registry.batch("Test").forbidWeapon("minecraft:iron_hoe", false).commit();
+		assertFalse(registry.isWeapon(item("minecraft:iron_hoe")));
+		assertTrue(registry.isWeapon(item("minecraft:golden_hoe")));
+	}
+
+	@Test
+	public void replaceAllRemovesEverythingElse() {
+		WeaponRegistry registry = new WeaponRegistry();
+		registry.batch("Test")
+				.allowSword("minecraft:stick", false)
+				.allowWeapon("minecraft:bow", false)
+				.allowWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemHoe", false)
+				.commit();
+		WeaponRegistry.Batch batch = registry.batch("Test").replaceAll().allowWeapon("minecraft:bow", false);
+		batch.commit();
+		assertEquals(2, batch.getRemoved());
+		assertEquals(1, batch.getUnchanged());
+		assertFalse(registry.isSword(item("minecraft:stick")));
+		assertTrue(registry.isWeapon(item("minecraft:bow")));
+		assertFalse(registry.isWeapon(item("minecraft:iron_hoe")));
+	}
+}
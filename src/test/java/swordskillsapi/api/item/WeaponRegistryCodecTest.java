@@ -0,0 +1,109 @@
+package swordskillsapi.api.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import swordskillsapi.api.item.WeaponRegistry.WeaponRegistryHolder;
+import swordskillsapi.api.item.WeaponRegistryCodec.Format;
+
+public class WeaponRegistryCodecTest
+{
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@Test
+	public void snapshotRoundTripStrings() {
+		assertSnapshotRoundTrip(Format.STRINGS);
+	}
+
+	@Test
+	public void snapshotRoundTripNamespaces() {
+		assertSnapshotRoundTrip(Format.NAMESPACES);
+	}
+
+	@Test
+	public void snapshotRoundTripItemIds() {
+		assertSnapshotRoundTrip(Format.ITEM_IDS);
+	}
+
+	@Test
+	public void changesRoundTripAllFormats() {
+		WeaponRegistry registry = new WeaponRegistry();
+		Map<ResourceLocation, WeaponRegistryHolder> changes = new LinkedHashMap<ResourceLocation, WeaponRegistryHolder>();
+		changes.put(new ResourceLocation("minecraft:stick"), registry.getRegistryByKey("allow_sword"));
+		changes.put(new ResourceLocation("othermod:katana"), registry.getRegistryByKey("forbid_weapon"));
+		changes.put(new ResourceLocation("minecraft:bow"), null);
+		for (Format format : Format.values()) {
+			PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+			WeaponRegistryCodec.writeChanges(buffer, changes, format);
+			assertEquals(format.toString(), changes, WeaponRegistryCodec.readChanges(buffer, registry));
+			assertEquals(format.toString(), 0, buffer.readableBytes());
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void unknownItemIdIsDropped() {
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		buffer.writeByte(Format.ITEM_IDS.ordinal());
+		buffer.writeVarInt(0);
+		buffer.writeVarInt(1);
+		buffer.writeByte(0);
+		// Entries are written as id + 1; no vanilla item has this id, for which Item.getItemById returns air
+		buffer.writeVarInt(30001);
+		assertTrue(WeaponRegistryCodec.readChanges(buffer, new WeaponRegistry()).isEmpty());
+		buffer.release();
+	}
+
+	@Test
+	public void compactFormatsAreSmaller() {
+		WeaponRegistry registry = TestRegistries.create();
+		int strings = encodedSize(registry, Format.STRINGS);
+		int namespaces = encodedSize(registry, Format.NAMESPACES);
+		int ids = encodedSize(registry, Format.ITEM_IDS);
+		assertTrue(namespaces < strings);
+		assertTrue(ids < namespaces);
+	}
+
+	private static int encodedSize(WeaponRegistry registry, Format format) {
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		registry.encode(buffer, format);
+		int size = buffer.readableBytes();
+		buffer.release();
+		return size;
+	}
+
+	private static void assertSnapshotRoundTrip(Format format) {
+		WeaponRegistry registry = TestRegistries.create();
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		registry.encode(buffer, format);
+		WeaponRegistry decoded = new WeaponRegistry();
+		decoded.decode(buffer);
+		assertEquals(0, buffer.readableBytes());
+		buffer.release();
+		assertSameContents(registry.getSnapshot(), decoded.getSnapshot());
+	}
+
+	static void assertSameContents(WeaponRegistrySnapshot expected, WeaponRegistrySnapshot actual) {
+		for (WeaponRegistryHolder list : WeaponRegistry.INSTANCE.getRegistries()) {
+			assertEquals(list.key, expected.getItems(list), actual.getItems(list));
+			assertEquals(list.key, expected.getClassRules(list), actual.getClassRules(list));
+		}
+		for (String name : WeaponAttribute.getNames()) {
+			WeaponAttribute attribute = WeaponAttribute.get(name);
+			assertEquals(name, expected.getAttributeValues(attribute), actual.getAttributeValues(attribute));
+		}
+		assertEquals(expected.getContentHash(), actual.getContentHash());
+	}
+}
@@ -0,0 +1,80 @@
+package swordskillsapi.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import swordskillsapi.api.item.TestRegistries;
+import swordskillsapi.api.item.WeaponRegistry;
+
+public class RegistryFileTest
+{
+	private File file;
+
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@Before
+	public void createFile() throws Exception {
+		this.file = File.createTempFile("weapon_registry", ".txt");
+	}
+
+	@After
+	public void deleteFile() {
+		this.file.delete();
+	}
+
+	@Test
+	public void writesListsAndAttributes() throws Exception {
+		WeaponRegistry registry = TestRegistries.createInstalled();
+		assertEquals(7, RegistryFile.write(this.file, registry, registry.getSnapshot()));
+		List<String> lines = Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8);
+		assertTrue(lines.contains("[" + RegistryFile.ATTRIBUTES + "]"));
+		assertTrue(lines.contains("minecraft:stick test.reach=4.5 test.weight=0.1"));
+		assertTrue(lines.contains("minecraft:bow test.reach=2.0"));
+	}
+
+	@Test
+	public void importReplaceRestoresExport() throws Exception {
+		WeaponRegistry registry = TestRegistries.createInstalled();
+		long expected = registry.getSnapshot().getContentHash();
+		RegistryFile.write(this.file, registry, registry.getSnapshot());
+		registry.batch("Test")
+				.allowWeapon("minecraft:diamond_sword", false)
+				.forbidSword("minecraft:stick", true)
+				.forbidWeapon(WeaponRegistry.CLASS_RULE_PREFIX + "net.minecraft.item.ItemAxe", false)
+				.setAttribute("minecraft:bow", "test.reach", 3.0F)
+				.setAttribute("minecraft:iron_sword", "test.weight", 9.0F)
+				.removeAttribute("minecraft:stick", "test.weight")
+				.commit();
+		assertFalse(expected == registry.getSnapshot().getContentHash());
+		WeaponRegistry.Batch batch = registry.batch("Test").replaceAll();
+		RegistryFile.read(this.file, registry, batch);
+		batch.commit();
+		assertEquals(expected, registry.getSnapshot().getContentHash());
+	}
+
+	@Test
+	public void importWithoutReplaceKeepsOtherValues() throws Exception {
+		WeaponRegistry registry = TestRegistries.createInstalled();
+		RegistryFile.write(this.file, registry, registry.getSnapshot());
+		registry.batch("Test").setAttribute("minecraft:iron_sword", "test.weight", 9.0F).commit();
+		long expected = registry.getSnapshot().getContentHash();
+		WeaponRegistry.Batch batch = registry.batch("Test");
+		RegistryFile.read(this.file, registry, batch);
+		batch.commit();
+		assertEquals(expected, registry.getSnapshot().getContentHash());
+	}
+}
@@ -0,0 +1,107 @@
+package swordskillsapi.network.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.api.item.TestRegistries;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistryCodec.Format;
+import swordskillsapi.network.RegistryPayloadCache;
+
+public class RegistryChunkReceiverTest
+{
+	private static final int CHUNK_SIZE = 16;
+
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@After
+	public void reset() {
+		RegistryChunkReceiver.reset();
+		WeaponRegistry.INSTANCE.copy(new WeaponRegistry());
+	}
+
+	private static byte[] encode(WeaponRegistry registry, Format format) {
+		ByteBuf payload = RegistryPayloadCache.encode(registry.getEpoch(), registry.getSnapshot(), format);
+		try {
+			byte[] bytes = new byte[payload.readableBytes()];
+			payload.readBytes(bytes);
+			return bytes;
+		} finally {
+			payload.release();
+		}
+	}
+
+	private static int getCount(byte[] payload) {
+		return (payload.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	private static byte[] getChunk(byte[] payload, int index) {
+		return Arrays.copyOfRange(payload, index * CHUNK_SIZE, Math.min(payload.length, (index + 1) * CHUNK_SIZE));
+	}
+
+	@Test
+	public void reassemblesChunkedRegistryAllFormats() {
+		WeaponRegistry server = TestRegistries.create();
+		for (Format format : Format.values()) {
+			byte[] payload = encode(server, format);
+			int count = getCount(payload);
+			assertTrue(count > 1);
+			for (int i = 0; i < count; i++) {
+				assertTrue(RegistryChunkReceiver.add(format.ordinal(), i, count, payload.length, getChunk(payload, i)));
+			}
+			WeaponRegistryPacket completed = RegistryChunkReceiver.complete();
+			assertNotNull(completed);
+			completed.process(null, Side.CLIENT);
+			assertEquals(server.getSnapshot().getContentHash(), WeaponRegistry.INSTANCE.getSnapshot().getContentHash());
+			assertEquals(server.getVersion(), WeaponRegistry.INSTANCE.getSyncedVersion(server.getEpoch()));
+			WeaponRegistry.INSTANCE.copy(new WeaponRegistry());
+		}
+	}
+
+	@Test
+	public void ignoresChunksOutOfOrder() {
+		byte[] payload = encode(TestRegistries.create(), Format.NAMESPACES);
+		int count = getCount(payload);
+		assertTrue(RegistryChunkReceiver.add(1, 0, count, payload.length, getChunk(payload, 0)));
+		assertFalse(RegistryChunkReceiver.add(1, 2, count, payload.length, getChunk(payload, 2)));
+		assertFalse(RegistryChunkReceiver.add(2, 1, count, payload.length, getChunk(payload, 1)));
+		assertTrue(RegistryChunkReceiver.add(1, 1, count, payload.length, getChunk(payload, 1)));
+	}
+
+	@Test
+	public void failedTransferIsStillAcknowledged() {
+		byte[] payload = encode(TestRegistries.create(), Format.NAMESPACES);
+		int count = getCount(payload);
+		// Declaring too short a length discards the transfer, but its remaining chunks must still be acknowledged
+		for (int i = 0; i < count; i++) {
+			assertTrue(RegistryChunkReceiver.add(1, i, count, CHUNK_SIZE, getChunk(payload, i)));
+		}
+		assertNull(RegistryChunkReceiver.complete());
+	}
+
+	@Test
+	public void corruptRegistryIsNotDecoded() {
+		byte[] payload = encode(TestRegistries.create(), Format.NAMESPACES);
+		int count = getCount(payload);
+		for (int i = 0; i < count - 1; i++) {
+			assertTrue(RegistryChunkReceiver.add(1, i, count, payload.length, getChunk(payload, i)));
+		}
+		// The last chunk is missing most of its bytes
+		assertTrue(RegistryChunkReceiver.add(1, count - 1, count, payload.length, new byte[1]));
+		assertNull(RegistryChunkReceiver.complete());
+	}
+}
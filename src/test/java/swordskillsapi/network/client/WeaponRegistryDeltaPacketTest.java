@@ -0,0 +1,105 @@
+package swordskillsapi.network.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.relauncher.Side;
+import swordskillsapi.api.item.TestRegistries;
+import swordskillsapi.api.item.WeaponRegistry;
+import swordskillsapi.api.item.WeaponRegistry.WeaponRegistryHolder;
+import swordskillsapi.api.item.WeaponRegistryCodec.Format;
+
+public class WeaponRegistryDeltaPacketTest
+{
+	@BeforeClass
+	public static void bootstrap() {
+		TestRegistries.bootstrap();
+	}
+
+	@After
+	public void resetClient() {
+		WeaponRegistry.INSTANCE.copy(new WeaponRegistry());
+	}
+
+	private static WeaponRegistry createServer() {
+		WeaponRegistry server = new WeaponRegistry();
+		server.batch("Test")
+				.allowSword("minecraft:stick", false)
+				.allowWeapon("minecraft:bow", false)
+				.forbidWeapon("minecraft:wooden_axe", false)
+				.commit();
+		return server;
+	}
+
+	/**
+	 * Adds, moves and removes an entry, each in a separate change
+	 */
+	private static void change(WeaponRegistry server) {
+		server.batch("Test").allowWeapon("minecraft:diamond_sword", false).commit();
+		server.batch("Test").forbidSword("minecraft:bow", true).commit();
+		server.batch("Test").replaceAll()
+				.allowSword("minecraft:stick", false)
+				.allowWeapon("minecraft:diamond_sword", false)
+				.forbidSword("minecraft:bow", false)
+				.commit();
+	}
+
+	@Test
+	public void deltaRoundTripAllFormats() {
+		for (Format format : Format.values()) {
+			WeaponRegistry server = createServer();
+			WeaponRegistry client = WeaponRegistry.INSTANCE;
+			client.copy(server, server.getEpoch(), server.getVersion());
+			long from = server.getVersion();
+			change(server);
+			Map<ResourceLocation, WeaponRegistryHolder> changes = server.getChangesSince(from);
+			assertEquals(3, changes.size());
+			assertNull(changes.get(new ResourceLocation("minecraft:wooden_axe")));
+			WeaponRegistryDeltaPacket received = roundTrip(new WeaponRegistryDeltaPacket(server.getEpoch(), from, server.getVersion(), changes, format));
+			received.process(null, Side.CLIENT);
+			assertEquals(server.getSnapshot().getContentHash(), client.getSnapshot().getContentHash());
+			assertEquals(server.getVersion(), client.getSyncedVersion(server.getEpoch()));
+		}
+	}
+
+	@Test
+	public void deltaFromOtherVersionIsNotSynchronized() {
+		WeaponRegistry server = createServer();
+		WeaponRegistry client = WeaponRegistry.INSTANCE;
+		client.copy(server, server.getEpoch(), server.getVersion());
+		change(server);
+		long mid = server.getVersion() - 1L;
+		// Skipping the changes before 'mid' leaves the client's lists incomplete
+		WeaponRegistryDeltaPacket received = roundTrip(new WeaponRegistryDeltaPacket(server.getEpoch(), mid, server.getVersion(), server.getChangesSince(mid), Format.NAMESPACES));
+		received.process(null, Side.CLIENT);
+		assertEquals(-1L, client.getSyncedVersion(server.getEpoch()));
+	}
+
+	@Test
+	public void journalDoesNotCoverFutureVersions() {
+		WeaponRegistry server = createServer();
+		assertEquals(0, server.getChangesSince(server.getVersion()).size());
+		assertNull(server.getChangesSince(server.getVersion() + 1L));
+	}
+
+	private static WeaponRegistryDeltaPacket roundTrip(WeaponRegistryDeltaPacket sent) {
+		ByteBuf buffer = Unpooled.buffer();
+		try {
+			sent.toBytes(buffer);
+			WeaponRegistryDeltaPacket received = new WeaponRegistryDeltaPacket();
+			received.fromBytes(buffer);
+			return received;
+		} finally {
+			buffer.release();
+		}
+	}
+}